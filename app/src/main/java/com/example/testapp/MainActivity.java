@@ -4,12 +4,8 @@ import android.content.ClipData;
 import android.content.ClipboardManager;
 import android.content.Context;
 import android.content.Intent;
-import android.content.pm.ApplicationInfo;
-import android.content.pm.PackageManager;
-import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.os.Bundle;
-import android.os.Handler;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.view.View;
@@ -21,14 +17,27 @@ import android.widget.Switch;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.testapp.catalog.AppCatalogStore;
+import com.example.testapp.catalog.PackageMetadataIndex;
+import com.example.testapp.core.catalog.CatalogEntry;
+import com.example.testapp.core.policy.PackageLists;
+import com.example.testapp.core.policy.PolicyData;
+import com.example.testapp.core.selection.SelectionSet;
+import com.example.testapp.core.settings.Setting;
 import com.example.testapp.model.AppInfo;
 import com.example.testapp.adapter.AppListAdapter;
+import com.example.testapp.policy.PolicyEngine;
+import com.example.testapp.search.AppSearcher;
+import com.example.testapp.settings.SettingsRepository;
+import com.example.testapp.usage.ScreenTimeTracker;
+import com.example.testapp.utils.GuardLog;
 import com.example.testapp.utils.PermissionManager;
 import com.example.testapp.services.AppMonitorService;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 public class MainActivity extends android.app.Activity {
@@ -45,7 +54,7 @@ public class MainActivity extends android.app.Activity {
     private LinearLayout errorLayout;
     private EditText searchInput;
     private ProgressBar progressBar;
-    private android.widget.ListView appListView;
+    private RecyclerView appListView;
     
     // 错误界面相关
     private TextView errorText;
@@ -54,10 +63,16 @@ public class MainActivity extends android.app.Activity {
     private String currentError = "";
     
     private boolean isBlacklistMode = true;
-    private PackageManager packageManager;
     private List<AppInfo> allApps;
+    // 选中状态独立于列表项保存，过滤和目录刷新都不会丢失
+    private final SelectionSet selection = new SelectionSet();
     private AppListAdapter adapter;
+    private AppSearcher appSearcher;
     private PermissionManager permissionManager;
+    private SettingsRepository settings;
+    // 策略文件在后台加载，完成前不恢复也不保存选择
+    private boolean policyLoaded;
+    private boolean policyReadable;
     
     // 权限相关UI
     private TextView permissionStatusText;
@@ -67,6 +82,8 @@ public class MainActivity extends android.app.Activity {
     private Switch protectionSwitch;
     private Switch autoStartSwitch;
     private Switch notificationSwitch;
+    private Switch screenTimeSwitch;
+    private TextView screenTimeText;
     private Button changePasswordButton;
     private Button resetButton;
 
@@ -75,7 +92,6 @@ public class MainActivity extends android.app.Activity {
         super.onCreate(savedInstanceState);
         
         try {
-            packageManager = getPackageManager();
             permissionManager = new PermissionManager(this);
             
             // 创建根布局
@@ -89,7 +105,8 @@ public class MainActivity extends android.app.Activity {
             
             // 将所有子布局添加到根布局
             rootLayout.addView(mainLayout);
-            rootLayout.addView(appListLayout);
+            rootLayout.addView(appListLayout, new LinearLayout.LayoutParams(
+                    LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.MATCH_PARENT));
             rootLayout.addView(settingsLayout);
             rootLayout.addView(errorLayout);
             
@@ -97,18 +114,15 @@ public class MainActivity extends android.app.Activity {
             setContentView(rootLayout);
             
             setupClickListeners();
-            loadModePreference();
-            loadSettings();
             updateUI();
             updatePermissionStatus();
             
             // 默认显示主界面
             showMainView();
-            
-            // 延迟启动监控服务，确保UI完全加载
-            new Handler().postDelayed(() -> {
-                startAppMonitorService();
-            }, 500);
+            // 设置涉及密钥库，在后台加载，完成前不能进入依赖设置的界面
+            setSettingsControlsEnabled(false);
+            SettingsRepository.getInstanceAsync(this, this::onSettingsReady);
+            PolicyEngine.getInstance(this).whenLoaded(this::onPolicyLoaded);
         } catch (Exception e) {
             e.printStackTrace();
             showErrorScreen("应用启动出错：" + e.getMessage());
@@ -192,19 +206,53 @@ public class MainActivity extends android.app.Activity {
         
         // 搜索框
         searchInput = new EditText(this);
-        searchInput.setHint("搜索用户安装的应用");
+        searchInput.setHint("搜索应用名称、拼音首字母或包名");
         appListLayout.addView(searchInput);
         
+        // 批量选择，只作用于当前搜索结果
+        LinearLayout bulkLayout = new LinearLayout(this);
+        bulkLayout.setOrientation(LinearLayout.HORIZONTAL);
+        Button selectAllButton = createBulkButton(bulkLayout, "全选");
+        Button selectNoneButton = createBulkButton(bulkLayout, "全不选");
+        Button invertButton = createBulkButton(bulkLayout, "反选");
+        appListLayout.addView(bulkLayout);
+        
         // 进度条
-        progressBar = new ProgressBar(this);
+        progressBar = new ProgressBar(this, null, android.R.attr.progressBarStyleHorizontal);
         progressBar.setVisibility(View.GONE);
         appListLayout.addView(progressBar);
         
         // 应用列表
-        appListView = new android.widget.ListView(this);
-        appListLayout.addView(appListView);
+        appListView = new RecyclerView(this);
+        appListView.setLayoutManager(new LinearLayoutManager(this));
+        appListView.setHasFixedSize(true);
+        adapter = new AppListAdapter(this, selection);
+        appSearcher = new AppSearcher();
+        appListView.setAdapter(adapter);
+        // 固定高度占满剩余空间，RecyclerView 才能只创建可见的行
+        appListLayout.addView(appListView, new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.MATCH_PARENT, 0, 1f));
         
         saveButton.setOnClickListener(v -> saveSelectedApps());
+        selectAllButton.setOnClickListener(v -> {
+            selection.selectAll(adapter.getCurrentList());
+            adapter.notifySelectionChanged();
+        });
+        selectNoneButton.setOnClickListener(v -> {
+            selection.deselectAll(adapter.getCurrentList());
+            adapter.notifySelectionChanged();
+        });
+        invertButton.setOnClickListener(v -> {
+            selection.invert(adapter.getCurrentList());
+            adapter.notifySelectionChanged();
+        });
+    }
+    
+    private Button createBulkButton(LinearLayout parent, String text) {
+        Button button = new Button(this);
+        button.setText(text);
+        parent.addView(button, new LinearLayout.LayoutParams(0, LinearLayout.LayoutParams.WRAP_CONTENT, 1f));
+        return button;
     }
     
     private void createSettingsLayout() {
@@ -240,6 +288,7 @@ public class MainActivity extends android.app.Activity {
         protectionSwitch = new Switch(this);
         autoStartSwitch = new Switch(this);
         notificationSwitch = new Switch(this);
+        screenTimeSwitch = new Switch(this);
         
         // 启用保护
         createSwitchItem(settingsLayout, "启用保护", "开启应用拦截功能", protectionSwitch);
@@ -250,6 +299,13 @@ public class MainActivity extends android.app.Activity {
         // 显示通知
         createSwitchItem(settingsLayout, "显示通知", "拦截时显示通知", notificationSwitch);
         
+        // 使用时间统计
+        createSwitchItem(settingsLayout, "使用时间统计", "记录各应用的前台使用时间", screenTimeSwitch);
+        screenTimeText = new TextView(this);
+        screenTimeText.setTextSize(14);
+        screenTimeText.setPadding(0, 0, 0, 10);
+        settingsLayout.addView(screenTimeText);
+        
         // 安全设置
         TextView securitySettingsTitle = new TextView(this);
         securitySettingsTitle.setText("安全设置");
@@ -368,34 +424,34 @@ public class MainActivity extends android.app.Activity {
         resetButton.setOnClickListener(v -> {
             // 重置所有设置
             getSharedPreferences("app_prefs", MODE_PRIVATE).edit().clear().apply();
+            settings.resetAll();
+            PolicyEngine.getInstance(this).clearPackages();
+            policyReadable = true;
             Toast.makeText(this, "已重置所有设置", Toast.LENGTH_SHORT).show();
             loadSettings();
         });
 
         if (protectionSwitch != null) {
             protectionSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
-                getSharedPreferences("app_prefs", MODE_PRIVATE)
-                        .edit()
-                        .putBoolean("protection_enabled", isChecked)
-                        .apply();
+                settings.set(Setting.PROTECTION_ENABLED, isChecked);
             });
         }
 
         if (autoStartSwitch != null) {
             autoStartSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
-                getSharedPreferences("app_prefs", MODE_PRIVATE)
-                        .edit()
-                        .putBoolean("auto_start_enabled", isChecked)
-                        .apply();
+                settings.set(Setting.AUTO_START, isChecked);
             });
         }
 
         if (notificationSwitch != null) {
             notificationSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
-                getSharedPreferences("app_prefs", MODE_PRIVATE)
-                        .edit()
-                        .putBoolean("notification_enabled", isChecked)
-                        .apply();
+                settings.set(Setting.NOTIFICATIONS, isChecked);
+            });
+        }
+
+        if (screenTimeSwitch != null) {
+            screenTimeSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
+                settings.set(Setting.SCREEN_TIME, isChecked);
             });
         }
         
@@ -438,11 +494,31 @@ public class MainActivity extends android.app.Activity {
             if (mainLayout != null) mainLayout.setVisibility(View.GONE);
             if (appListLayout != null) appListLayout.setVisibility(View.GONE);
             if (settingsLayout != null) settingsLayout.setVisibility(View.VISIBLE);
+            updateScreenTime();
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
     
+    private void updateScreenTime() {
+        if (screenTimeText == null) {
+            return;
+        }
+        // 按天汇总的查询为常数时间，可直接在主线程读取
+        ScreenTimeTracker tracker = ScreenTimeTracker.getInstance(this);
+        PackageMetadataIndex index = PackageMetadataIndex.getInstance(this);
+        StringBuilder text = new StringBuilder();
+        text.append("今日 ").append(ScreenTimeTracker.formatDuration(tracker.getTodayMillis()))
+                .append(" · 近 7 天 ").append(ScreenTimeTracker.formatDuration(tracker.getWeekMillis()));
+        for (String packageName : tracker.getTopToday(5)) {
+            // 只用已缓存的名称，未加载时显示包名，避免在主线程调用 PackageManager
+            String label = index.getCachedLabel(packageName);
+            text.append("\n").append(label != null ? label : packageName).append("  ")
+                    .append(ScreenTimeTracker.formatDuration(tracker.getTodayMillis(packageName)));
+        }
+        screenTimeText.setText(text);
+    }
+    
     private void showErrorScreen(String errorMessage) {
         currentError = errorMessage;
         try {
@@ -483,15 +559,16 @@ public class MainActivity extends android.app.Activity {
     
     private void showDebugLogs() {
         try {
+            if (settings == null) {
+                Toast.makeText(this, "设置尚未加载，请稍候", Toast.LENGTH_SHORT).show();
+                return;
+            }
             // 获取保存的应用列表
-            String blacklistedApps = getSharedPreferences("app_prefs", MODE_PRIVATE)
-                    .getString("blacklist_apps", "无");
-            String whitelistedApps = getSharedPreferences("app_prefs", MODE_PRIVATE)
-                    .getString("whitelist_apps", "无");
-            boolean isBlacklistMode = getSharedPreferences("app_prefs", MODE_PRIVATE)
-                    .getBoolean("is_blacklist_mode", true);
-            boolean protectionEnabled = getSharedPreferences("app_prefs", MODE_PRIVATE)
-                    .getBoolean("protection_enabled", true);
+            PolicyData lists = PolicyEngine.getInstance(this).getLists();
+            String blacklistedApps = PackageLists.join(lists.getBlacklist());
+            String whitelistedApps = PackageLists.join(lists.getWhitelist());
+            boolean isBlacklistMode = settings.get(Setting.BLACKLIST_MODE);
+            boolean protectionEnabled = settings.get(Setting.PROTECTION_ENABLED);
             
             // 创建日志内容
             StringBuilder logContent = new StringBuilder();
@@ -535,7 +612,7 @@ public class MainActivity extends android.app.Activity {
             try {
                 hasAllPermissions = permissionManager.hasAllPermissions();
             } catch (Exception e) {
-                android.util.Log.e("MainActivity", "Error checking permissions", e);
+                GuardLog.e("MainActivity", "Error checking permissions", e);
                 hasAllPermissions = false;
             }
             
@@ -615,29 +692,25 @@ public class MainActivity extends android.app.Activity {
     }
 
     private void saveModePreference() {
-        getSharedPreferences("app_prefs", MODE_PRIVATE)
-                .edit()
-                .putBoolean("is_blacklist_mode", isBlacklistMode)
-                .apply();
+        settings.set(Setting.BLACKLIST_MODE, isBlacklistMode);
     }
     
     private void loadModePreference() {
-        isBlacklistMode = getSharedPreferences("app_prefs", MODE_PRIVATE)
-                .getBoolean("is_blacklist_mode", true);
+        isBlacklistMode = settings.get(Setting.BLACKLIST_MODE);
     }
     
     private void loadSettings() {
         try {
-            boolean protectionEnabled = getSharedPreferences("app_prefs", MODE_PRIVATE)
-                    .getBoolean("protection_enabled", true);
-            boolean autoStartEnabled = getSharedPreferences("app_prefs", MODE_PRIVATE)
-                    .getBoolean("auto_start_enabled", true);
-            boolean notificationEnabled = getSharedPreferences("app_prefs", MODE_PRIVATE)
-                    .getBoolean("notification_enabled", true);
+            boolean protectionEnabled = settings.get(Setting.PROTECTION_ENABLED);
+            boolean autoStartEnabled = settings.get(Setting.AUTO_START);
+            boolean notificationEnabled = settings.get(Setting.NOTIFICATIONS);
+            boolean screenTimeEnabled = settings.get(Setting.SCREEN_TIME);
 
             if (protectionSwitch != null) protectionSwitch.setChecked(protectionEnabled);
             if (autoStartSwitch != null) autoStartSwitch.setChecked(autoStartEnabled);
             if (notificationSwitch != null) notificationSwitch.setChecked(notificationEnabled);
+            if (screenTimeSwitch != null) screenTimeSwitch.setChecked(screenTimeEnabled);
+            updateScreenTime();
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -645,147 +718,131 @@ public class MainActivity extends android.app.Activity {
     
     private void loadApps() {
         if (progressBar != null) {
+            // 对账确定需要加载的数量之前显示为不确定进度
+            progressBar.setIndeterminate(true);
             progressBar.setVisibility(View.VISIBLE);
         }
+        // 每次打开都从已保存的选择开始
+        allApps = null;
+        restoreSelectedApps();
         
-        new Thread(() -> {
-            try {
-                List<AppInfo> apps = new ArrayList<>();
-                if (packageManager != null) {
-                    List<ApplicationInfo> installedApps = packageManager.getInstalledApplications(PackageManager.GET_META_DATA);
-                    
-                    if (installedApps != null) {
-                        for (ApplicationInfo appInfo : installedApps) {
-                            try {
-                                // 排除本应用
-                                if (getPackageName() != null && getPackageName().equals(appInfo.packageName)) {
-                                    continue;
-                                }
-                                
-                                // 只显示用户安装的应用，排除系统应用
-                                if ((appInfo.flags & ApplicationInfo.FLAG_SYSTEM) != 0) {
-                                    continue;
-                                }
-                                
-                                String appName = packageManager.getApplicationLabel(appInfo).toString();
-                                Drawable icon = packageManager.getApplicationIcon(appInfo);
-                                boolean isSystemApp = (appInfo.flags & ApplicationInfo.FLAG_SYSTEM) != 0;
-                                
-                                AppInfo app = new AppInfo(appInfo.packageName, appName, icon, isSystemApp);
-                                apps.add(app);
-                            } catch (Exception e) {
-                                // 跳过有问题的应用
-                                continue;
-                            }
-                        }
-                    }
+        AppCatalogStore.getInstance(this).open(new AppCatalogStore.Listener() {
+            @Override
+            public void onCatalogLoaded(List<CatalogEntry> entries) {
+                showApps(entries);
+            }
+            
+            @Override
+            public void onCatalogProgress(int loaded, int total) {
+                if (progressBar != null) {
+                    progressBar.setIndeterminate(false);
+                    progressBar.setMax(total);
+                    progressBar.setProgress(loaded);
+                }
+            }
+            
+            @Override
+            public void onCatalogReconciled() {
+                if (progressBar != null) {
+                    progressBar.setVisibility(View.GONE);
                 }
-                
-                // 按应用名排序
-                Collections.sort(apps, Comparator.comparing(AppInfo::getAppName, String.CASE_INSENSITIVE_ORDER));
-                
-                // 恢复已选择的应用
-                restoreSelectedApps(apps);
-                
-                runOnUiThread(() -> {
-                    allApps = apps;
-                    try {
-                        adapter = new AppListAdapter(this, apps);
-                        if (appListView != null) {
-                            appListView.setAdapter(adapter);
-                        }
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                        Toast.makeText(this, "加载应用列表出错：" + e.getMessage(), Toast.LENGTH_SHORT).show();
-                    }
-                    if (progressBar != null) {
-                        progressBar.setVisibility(View.GONE);
-                    }
-                });
-            } catch (Exception e) {
-                runOnUiThread(() -> {
-                    e.printStackTrace();
-                    Toast.makeText(this, "加载应用列表出错：" + e.getMessage(), Toast.LENGTH_SHORT).show();
-                    if (progressBar != null) {
-                        progressBar.setVisibility(View.GONE);
-                    }
-                });
             }
-        }).start();
+        });
     }
     
-    private void restoreSelectedApps(List<AppInfo> apps) {
-        String appsKey = isBlacklistMode ? "blacklist_apps" : "whitelist_apps";
-        String appsString = getSharedPreferences("app_prefs", MODE_PRIVATE)
-                .getString(appsKey, "");
-        
-        if (!appsString.isEmpty()) {
-            String[] selectedPackages = appsString.split(",");
-            for (AppInfo app : apps) {
-                for (String selectedPackage : selectedPackages) {
-                    if (app.getPackageName().equals(selectedPackage.trim())) {
-                        app.setSelected(true);
-                        break;
-                    }
-                }
+    private void showApps(List<CatalogEntry> entries) {
+        try {
+            // 目录已按名称排序，图标由 IconLoader 在列表绑定时按需加载
+            List<AppInfo> apps = new ArrayList<>(entries.size());
+            for (CatalogEntry entry : entries) {
+                apps.add(new AppInfo(entry.getPackageName(), entry.getLabel(), false));
             }
+            allApps = apps;
+            
+            String query = searchInput != null ? searchInput.getText().toString() : "";
+            appSearcher.setItems(apps, query, adapter::updateList);
+        } catch (Exception e) {
+            e.printStackTrace();
+            Toast.makeText(this, "加载应用列表出错：" + e.getMessage(), Toast.LENGTH_SHORT).show();
         }
     }
     
-    private void filterApps(String query) {
-        if (adapter == null) return;
-        
-        List<AppInfo> filteredApps = new ArrayList<>();
-        for (AppInfo app : allApps) {
-            if (app.getAppName().toLowerCase().contains(query.toLowerCase())) {
-                filteredApps.add(app);
-            }
+    private void onSettingsReady(SettingsRepository repository) {
+        if (isFinishing()) {
+            return;
         }
+        settings = repository;
+        loadModePreference();
+        loadSettings();
+        updateUI();
+        setSettingsControlsEnabled(true);
+        startAppMonitorService();
+    }
+
+    private void setSettingsControlsEnabled(boolean enabled) {
+        toggleModeButton.setEnabled(enabled);
+        showAppListButton.setEnabled(enabled);
+        showSettingsButton.setEnabled(enabled);
+    }
+
+    private void onPolicyLoaded(boolean readable) {
+        if (isFinishing()) {
+            return;
+        }
+        policyLoaded = true;
+        policyReadable = readable;
+        if (!readable) {
+            Toast.makeText(this, "无法读取已保存的应用列表，修改不会保存，可在设置中重置", Toast.LENGTH_LONG).show();
+        }
+        if (appListLayout != null && appListLayout.getVisibility() == View.VISIBLE) {
+            restoreSelectedApps();
+        }
+    }
+
+    private void restoreSelectedApps() {
+        if (!policyLoaded) {
+            // 加载完成后由 onPolicyLoaded 恢复
+            return;
+        }
+        selection.replaceAll(PolicyEngine.getInstance(this).getPackages(isBlacklistMode));
+        adapter.notifySelectionChanged();
+    }
+    
+    private void filterApps(String query) {
+        if (adapter == null || allApps == null) return;
         
-        adapter.updateList(filteredApps);
+        // 防抖后在后台线程查询，结果回到主线程再提交给列表
+        appSearcher.search(query, adapter::updateList);
     }
     
     private void saveSelectedApps() {
-        if (adapter == null) return;
-        
-        List<AppInfo> selectedApps = adapter.getSelectedApps();
-        
-        if (selectedApps.isEmpty()) {
+        if (!policyLoaded) {
+            Toast.makeText(this, "正在加载已保存的应用列表，请稍候", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (!policyReadable) {
+            // 保存会覆盖无法读取的原有配置，只能通过重置清除
+            Toast.makeText(this, "无法读取已保存的应用列表，请先在设置中重置", Toast.LENGTH_LONG).show();
+            return;
+        }
+        if (selection.isEmpty()) {
             Toast.makeText(this, "请至少选择一个应用", Toast.LENGTH_SHORT).show();
             return;
         }
         
-        // 保存选中的应用到SharedPreferences
-        StringBuilder selectedPackages = new StringBuilder();
-        for (AppInfo app : selectedApps) {
-            if (selectedPackages.length() > 0) {
-                selectedPackages.append(",");
+        // 保存到策略文件，包含当前未显示（被搜索过滤或已卸载）的已选应用
+        int count = selection.size();
+        PolicyEngine.getInstance(this).savePackages(isBlacklistMode, selection.packages(), saved -> {
+            if (saved) {
+                Toast.makeText(this, "已保存 " + count + " 个应用", Toast.LENGTH_SHORT).show();
+            } else {
+                Toast.makeText(this, "保存失败，重启后修改将丢失", Toast.LENGTH_LONG).show();
             }
-            selectedPackages.append(app.getPackageName());
-        }
-        
-        String prefKey = isBlacklistMode ? "blacklist_apps" : "whitelist_apps";
-        String savedString = selectedPackages.toString();
-        
-        getSharedPreferences("app_prefs", MODE_PRIVATE)
-                .edit()
-                .putString(prefKey, savedString)
-                .apply();
-        
-        // 验证保存是否成功
-        String verifyString = getSharedPreferences("app_prefs", MODE_PRIVATE)
-                .getString(prefKey, "");
-        
-        android.util.Log.d("MainActivity", "保存模式: " + (isBlacklistMode ? "黑名单" : "白名单"));
-        android.util.Log.d("MainActivity", "保存内容: " + savedString);
-        android.util.Log.d("MainActivity", "验证内容: " + verifyString);
-        android.util.Log.d("MainActivity", "保存是否成功: " + savedString.equals(verifyString));
-        
-        Toast.makeText(this, "已保存 " + selectedApps.size() + " 个应用", Toast.LENGTH_SHORT).show();
+        });
         
-        // 重启监控服务以应用新的配置
-        restartAppMonitorService();
+        GuardLog.d("MainActivity", "保存模式: {}, 应用数: {}", isBlacklistMode ? "黑名单" : "白名单", count);
         
+        // 新策略已由 PolicyEngine 推送给运行中的检测服务，无需重启
         showMainView();
     }
 
@@ -793,8 +850,10 @@ public class MainActivity extends android.app.Activity {
     protected void onResume() {
         super.onResume();
         try {
-            loadModePreference();
-            loadSettings();
+            if (settings != null) {
+                loadModePreference();
+                loadSettings();
+            }
             updateUI();
             updatePermissionStatus();
         } catch (Exception e) {
@@ -803,6 +862,23 @@ public class MainActivity extends android.app.Activity {
         }
     }
 
+    @Override
+    protected void onPause() {
+        super.onPause();
+        // 进入后台前写入合并中的设置修改
+        if (settings != null) {
+            settings.flushNow();
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (appSearcher != null) {
+            appSearcher.stop();
+        }
+    }
+
     @Override
     public void onBackPressed() {
         if (appListLayout.getVisibility() == View.VISIBLE) {
@@ -817,16 +893,15 @@ public class MainActivity extends android.app.Activity {
     private void startAppMonitorService() {
         try {
             if (permissionManager == null) {
-                android.util.Log.e("MainActivity", "PermissionManager is null");
+                GuardLog.e("MainActivity", "PermissionManager is null");
                 return;
             }
             
             boolean protectionEnabled = false;
             try {
-                protectionEnabled = getSharedPreferences("app_prefs", MODE_PRIVATE)
-                        .getBoolean("protection_enabled", true);
+                protectionEnabled = settings.get(Setting.PROTECTION_ENABLED);
             } catch (Exception e) {
-                android.util.Log.e("MainActivity", "Error getting protection preference", e);
+                GuardLog.e("MainActivity", "Error getting protection preference", e);
                 protectionEnabled = false;
             }
             
@@ -834,7 +909,7 @@ public class MainActivity extends android.app.Activity {
             try {
                 hasAllPermissions = permissionManager.hasAllPermissions();
             } catch (Exception e) {
-                android.util.Log.e("MainActivity", "Error checking permissions", e);
+                GuardLog.e("MainActivity", "Error checking permissions", e);
                 hasAllPermissions = false;
             }
             
@@ -851,7 +926,7 @@ public class MainActivity extends android.app.Activity {
                     }
                     android.util.Log.d("MainActivity", "AppMonitorService started successfully");
                 } catch (Exception e) {
-                    android.util.Log.e("MainActivity", "Failed to start AppMonitorService", e);
+                    GuardLog.e("MainActivity", "Failed to start AppMonitorService", e);
                     Toast.makeText(this, "启动监控服务失败：" + e.getMessage(), Toast.LENGTH_LONG).show();
                 }
             } else {
@@ -860,23 +935,8 @@ public class MainActivity extends android.app.Activity {
             }
         } catch (Exception e) {
             e.printStackTrace();
-            android.util.Log.e("MainActivity", "Error in startAppMonitorService", e);
+            GuardLog.e("MainActivity", "Error in startAppMonitorService", e);
             Toast.makeText(this, "服务启动出错：" + e.getMessage(), Toast.LENGTH_LONG).show();
         }
     }
-    
-    private void restartAppMonitorService() {
-        try {
-            Intent serviceIntent = new Intent(this, AppMonitorService.class);
-            stopService(serviceIntent);
-            
-            // 延迟重启以确保服务完全停止
-            new Handler().postDelayed(() -> {
-                startAppMonitorService();
-            }, 1000);
-        } catch (Exception e) {
-            e.printStackTrace();
-            android.util.Log.e("MainActivity", "Error restarting AppMonitorService", e);
-        }
-    }
 }
\ No newline at end of file
@@ -1,7 +1,6 @@
 package com.example.testapp.adapter;
 
 import android.content.Context;
-import android.graphics.drawable.Drawable;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -9,94 +8,135 @@ import android.widget.CheckBox;
 import android.widget.ImageView;
 import android.widget.TextView;
 
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
 import com.example.testapp.R;
+import com.example.testapp.catalog.IconLoader;
+import com.example.testapp.core.selection.SelectionSet;
 import com.example.testapp.model.AppInfo;
 
-import java.util.ArrayList;
 import java.util.List;
 
-public class AppListAdapter extends android.widget.BaseAdapter {
-    private List<AppInfo> appList;
-    private Context context;
-    private LayoutInflater inflater;
+/**
+ * 应用列表适配器。新列表在后台线程与当前列表做差异比较，只刷新变化的行；
+ * 行的稳定 ID 由包名决定，绑定过程不创建新对象。选中状态读写共享的 {@link SelectionSet}。
+ */
+public class AppListAdapter extends ListAdapter<AppInfo, AppListAdapter.ViewHolder> {
+    // 仅刷新复选框的局部刷新标记
+    private static final Object PAYLOAD_SELECTION = new Object();
+
+    private static final DiffUtil.ItemCallback<AppInfo> DIFF_CALLBACK = new DiffUtil.ItemCallback<AppInfo>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull AppInfo oldItem, @NonNull AppInfo newItem) {
+            return oldItem.getPackageName().equals(newItem.getPackageName());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull AppInfo oldItem, @NonNull AppInfo newItem) {
+            return oldItem.getAppName().equals(newItem.getAppName());
+        }
+    };
+
+    private final LayoutInflater inflater;
+    private final IconLoader iconLoader;
+    private final SelectionSet selection;
 
-    public AppListAdapter(Context context, List<AppInfo> appList) {
-        this.context = context;
-        this.appList = new ArrayList<>(appList);
+    public AppListAdapter(Context context, SelectionSet selection) {
+        super(DIFF_CALLBACK);
+        this.selection = selection;
         this.inflater = LayoutInflater.from(context);
+        this.iconLoader = IconLoader.getInstance(context);
+        setHasStableIds(true);
     }
 
+    /**
+     * 提交新列表，差异在后台计算完成后再应用到界面。
+     */
     public void updateList(List<AppInfo> newList) {
-        this.appList = new ArrayList<>(newList);
-        notifyDataSetChanged();
+        submitList(newList);
+    }
+
+    /**
+     * 批量修改选择后调用，只重新绑定各行的复选框。
+     */
+    public void notifySelectionChanged() {
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
     }
 
     @Override
-    public int getCount() {
-        return appList.size();
+    public long getItemId(int position) {
+        return stableId(getItem(position).getPackageName());
     }
 
+    @NonNull
     @Override
-    public Object getItem(int position) {
-        return appList.get(position);
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return new ViewHolder(inflater.inflate(R.layout.item_app, parent, false));
     }
 
     @Override
-    public long getItemId(int position) {
-        return position;
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        AppInfo appInfo = getItem(position);
+        holder.appName.setText(appInfo.getAppName());
+        holder.packageName.setText(appInfo.getPackageName());
+        holder.checkBox.setChecked(selection.isSelected(appInfo.getPackageName()));
+        iconLoader.load(appInfo.getPackageName(), holder.icon, holder.iconSize);
     }
 
     @Override
-    public View getView(int position, View convertView, ViewGroup parent) {
-        ViewHolder holder;
-        
-        if (convertView == null) {
-            convertView = inflater.inflate(R.layout.item_app, parent, false);
-            holder = new ViewHolder();
-            holder.icon = convertView.findViewById(R.id.appIcon);
-            holder.appName = convertView.findViewById(R.id.appName);
-            holder.packageName = convertView.findViewById(R.id.packageName);
-            holder.checkBox = convertView.findViewById(R.id.checkBox);
-            convertView.setTag(holder);
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(PAYLOAD_SELECTION)) {
+            holder.checkBox.setChecked(selection.isSelected(getItem(position).getPackageName()));
         } else {
-            holder = (ViewHolder) convertView.getTag();
+            onBindViewHolder(holder, position);
         }
+    }
 
-        AppInfo appInfo = appList.get(position);
-        
-        holder.appName.setText(appInfo.getAppName());
-        holder.packageName.setText(appInfo.getPackageName());
-        holder.icon.setImageDrawable(appInfo.getIcon());
-        holder.checkBox.setChecked(appInfo.isSelected());
-        
-        // 点击事件
-        convertView.setOnClickListener(v -> {
-            appInfo.setSelected(!appInfo.isSelected());
-            holder.checkBox.setChecked(appInfo.isSelected());
-        });
-        
-        holder.checkBox.setOnClickListener(v -> {
-            appInfo.setSelected(!appInfo.isSelected());
-            holder.checkBox.setChecked(appInfo.isSelected());
-        });
-
-        return convertView;
+    @Override
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        iconLoader.cancel(holder.icon);
     }
-    
-    public List<AppInfo> getSelectedApps() {
-        List<AppInfo> selectedApps = new ArrayList<>();
-        for (AppInfo app : appList) {
-            if (app.isSelected()) {
-                selectedApps.add(app);
-            }
+
+    /**
+     * 包名的 64 位 FNV-1a 哈希，冲突概率可忽略，且计算时不分配对象。
+     */
+    static long stableId(String packageName) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < packageName.length(); i++) {
+            hash ^= packageName.charAt(i);
+            hash *= 0x100000001b3L;
         }
-        return selectedApps;
+        return hash;
     }
 
-    private static class ViewHolder {
-        ImageView icon;
-        TextView appName;
-        TextView packageName;
-        CheckBox checkBox;
+    final class ViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
+        final ImageView icon;
+        final TextView appName;
+        final TextView packageName;
+        final CheckBox checkBox;
+        final int iconSize;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            icon = itemView.findViewById(R.id.appIcon);
+            appName = itemView.findViewById(R.id.appName);
+            packageName = itemView.findViewById(R.id.packageName);
+            checkBox = itemView.findViewById(R.id.checkBox);
+            iconSize = icon.getLayoutParams().width;
+            // 每个 ViewHolder 只创建一次监听器
+            itemView.setOnClickListener(this);
+        }
+
+        @Override
+        public void onClick(View v) {
+            int position = getBindingAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) {
+                return;
+            }
+            checkBox.setChecked(selection.toggle(getItem(position).getPackageName()));
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,239 @@
+package com.example.testapp.catalog;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+
+import com.example.testapp.core.catalog.CatalogCodec;
+import com.example.testapp.core.catalog.CatalogEntry;
+import com.example.testapp.core.catalog.SortedCatalog;
+import com.example.testapp.utils.GuardLog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 用户安装应用的持久化目录。
+ * 打开应用列表时先交付磁盘上的缓存，再在后台与 PackageManager 对账，
+ * 只为 lastUpdateTime 变化的应用重新加载名称；目录有变化时重新写盘并再次交付。
+ * 名称加载分发到与 CPU 核数相同的线程池，每完成一批就按顺序并入目录并交付，
+ * 首次打开时列表可以边加载边显示。
+ */
+public class AppCatalogStore {
+    private static final String TAG = "AppCatalogStore";
+    private static final String FILE_NAME = "app_catalog.bin";
+    private static final int BATCH_SIZE = 24;
+
+    public interface Listener {
+        /** 目录可用或发生变化，在主线程回调；首次加载时每完成一批回调一次 */
+        void onCatalogLoaded(List<CatalogEntry> entries);
+
+        /** 名称加载进度，在主线程回调 */
+        void onCatalogProgress(int loaded, int total);
+
+        /** 后台对账结束（无论成功与否），在主线程回调 */
+        void onCatalogReconciled();
+    }
+
+    private static AppCatalogStore instance;
+
+    private final String selfPackage;
+    private final PackageManager packageManager;
+    private final File file;
+    private final IconLoader iconLoader;
+    private final Handler worker;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ThreadPoolExecutor labelExecutor;
+    // 最近一次对账后的目录，进程存活期间再次打开无需读文件
+    private volatile List<CatalogEntry> entries;
+
+    private AppCatalogStore(Context context) {
+        Context appContext = context.getApplicationContext();
+        selfPackage = appContext.getPackageName();
+        packageManager = appContext.getPackageManager();
+        file = new File(appContext.getFilesDir(), FILE_NAME);
+        iconLoader = IconLoader.getInstance(appContext);
+        HandlerThread thread = new HandlerThread("AppCatalog", Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        worker = new Handler(thread.getLooper());
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        labelExecutor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                runnable -> new Thread(runnable, "CatalogLabel-" + threadCount.incrementAndGet()));
+        // 空闲时回收线程，只在打开应用列表期间占用
+        labelExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    public static synchronized AppCatalogStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new AppCatalogStore(context);
+        }
+        return instance;
+    }
+
+    public void open(Listener listener) {
+        worker.post(() -> {
+            List<CatalogEntry> cached = entries;
+            if (cached == null) {
+                cached = readCache();
+            }
+            if (!cached.isEmpty()) {
+                deliver(listener, cached);
+            }
+            try {
+                List<CatalogEntry> fresh = reconcile(cached, listener);
+                entries = fresh;
+                if (fresh != cached) {
+                    writeCache(fresh);
+                    deliver(listener, fresh);
+                } else if (cached.isEmpty()) {
+                    deliver(listener, fresh);
+                }
+            } catch (Exception e) {
+                GuardLog.e(TAG, "Error reconciling app catalog", e);
+            }
+            mainHandler.post(listener::onCatalogReconciled);
+        });
+    }
+
+    private void deliver(Listener listener, List<CatalogEntry> catalog) {
+        mainHandler.post(() -> listener.onCatalogLoaded(catalog));
+    }
+
+    /**
+     * 与已安装应用对账。没有任何变化时返回传入的同一个列表。
+     */
+    private List<CatalogEntry> reconcile(List<CatalogEntry> cached, Listener listener)
+            throws InterruptedException, ExecutionException {
+        List<PackageInfo> installed = packageManager.getInstalledPackages(0);
+        Map<String, CatalogEntry> byPackage = new HashMap<>(cached.size() * 2);
+        for (CatalogEntry entry : cached) {
+            byPackage.put(entry.getPackageName(), entry);
+        }
+
+        List<CatalogEntry> kept = new ArrayList<>(installed.size());
+        List<PackageInfo> stale = new ArrayList<>();
+        for (PackageInfo info : installed) {
+            ApplicationInfo appInfo = info.applicationInfo;
+            // 只收录用户安装的应用，排除本应用和系统应用
+            if (appInfo == null || selfPackage.equals(info.packageName) ||
+                (appInfo.flags & ApplicationInfo.FLAG_SYSTEM) != 0) {
+                continue;
+            }
+            CatalogEntry entry = byPackage.remove(info.packageName);
+            if (entry != null && entry.getLastUpdateTime() == info.lastUpdateTime) {
+                kept.add(entry);
+            } else {
+                if (entry != null) {
+                    // 应用已更新，图标可能变化
+                    iconLoader.evict(info.packageName);
+                }
+                stale.add(info);
+            }
+        }
+
+        // 剩余的缓存条目对应已卸载的应用
+        int removed = byPackage.size();
+        for (String packageName : byPackage.keySet()) {
+            iconLoader.evict(packageName);
+        }
+        if (stale.isEmpty() && removed == 0) {
+            return cached;
+        }
+        GuardLog.d(TAG, "Catalog reconcile: {} to load, {} removed", stale.size(), removed);
+
+        SortedCatalog result = new SortedCatalog(kept);
+        CompletionService<CatalogEntry> completion = new ExecutorCompletionService<>(labelExecutor);
+        for (PackageInfo info : stale) {
+            completion.submit(() -> toEntry(info));
+        }
+        List<CatalogEntry> batch = new ArrayList<>(BATCH_SIZE);
+        int total = stale.size();
+        for (int loaded = 1; loaded <= total; loaded++) {
+            batch.add(completion.take().get());
+            if (batch.size() == BATCH_SIZE || loaded == total) {
+                result.addAll(batch);
+                batch.clear();
+                // 最后一批由调用方在写盘后交付
+                if (loaded < total) {
+                    deliver(listener, result.snapshot());
+                }
+                int progress = loaded;
+                mainHandler.post(() -> listener.onCatalogProgress(progress, total));
+            }
+        }
+        return result.snapshot();
+    }
+
+    @SuppressWarnings("deprecation")
+    private CatalogEntry toEntry(PackageInfo info) {
+        String label;
+        try {
+            label = info.applicationInfo.loadLabel(packageManager).toString();
+        } catch (Exception e) {
+            label = info.packageName;
+        }
+        long versionCode = Build.VERSION.SDK_INT >= Build.VERSION_CODES.P ?
+                info.getLongVersionCode() : info.versionCode;
+        return new CatalogEntry(info.packageName, label, info.applicationInfo.flags,
+                versionCode, info.lastUpdateTime);
+    }
+
+    private List<CatalogEntry> readCache() {
+        if (!file.exists()) {
+            return Collections.emptyList();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            List<CatalogEntry> cached = CatalogCodec.read(in);
+            GuardLog.d(TAG, "Loaded {} cached catalog entries", cached.size());
+            return Collections.unmodifiableList(cached);
+        } catch (IOException e) {
+            // 缓存损坏或格式升级，丢弃后完整重建
+            GuardLog.w(TAG, "Discarding unreadable catalog: {}", e.getMessage());
+            file.delete();
+            return Collections.emptyList();
+        }
+    }
+
+    private void writeCache(List<CatalogEntry> catalog) {
+        // 先写临时文件再重命名，避免中途退出留下半个文件
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            CatalogCodec.write(catalog, out);
+        } catch (IOException e) {
+            GuardLog.e(TAG, "Error writing app catalog", e);
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            GuardLog.e(TAG, "Error replacing app catalog");
+            temp.delete();
+        }
+    }
+}
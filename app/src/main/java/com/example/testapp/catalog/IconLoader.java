@@ -0,0 +1,149 @@
+package com.example.testapp.catalog;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import com.example.testapp.utils.GuardLog;
+
+/**
+ * 应用图标的按需加载器。
+ * 图标在后台线程按列表图标尺寸栅格化为位图，放入按字节计算的 LRU 缓存，
+ * 缓存上限取应用可用内存的 1/8；列表行被复用时取消其未完成的请求。
+ */
+public class IconLoader {
+    private static final String TAG = "IconLoader";
+    private static final int CACHE_FRACTION = 8;
+
+    private static IconLoader instance;
+
+    private final PackageManager packageManager;
+    private final LruCache<String, Bitmap> cache;
+    private final Handler worker;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private IconLoader(Context context) {
+        Context appContext = context.getApplicationContext();
+        packageManager = appContext.getPackageManager();
+        ActivityManager activityManager = (ActivityManager) appContext.getSystemService(Context.ACTIVITY_SERVICE);
+        int maxBytes = activityManager.getMemoryClass() * 1024 * 1024 / CACHE_FRACTION;
+        cache = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+        HandlerThread thread = new HandlerThread("IconLoader", Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        worker = new Handler(thread.getLooper());
+    }
+
+    public static synchronized IconLoader getInstance(Context context) {
+        if (instance == null) {
+            instance = new IconLoader(context);
+        }
+        return instance;
+    }
+
+    /**
+     * 把应用图标加载到 {@code view}，必须在主线程调用。
+     * 命中缓存时同步设置；否则先清空旧图标，解码完成后若该视图未被重新绑定再设置。
+     */
+    public void load(String packageName, ImageView view, int sizePx) {
+        cancel(view);
+
+        Bitmap cached = cache.get(packageName);
+        if (cached != null) {
+            view.setTag(null);
+            view.setImageBitmap(cached);
+            return;
+        }
+
+        Request request = new Request(packageName, view, sizePx);
+        view.setTag(request);
+        view.setImageDrawable(null);
+        worker.post(() -> decode(request));
+    }
+
+    /**
+     * 取消视图上尚未完成的请求，列表行被回收时调用。
+     */
+    public void cancel(ImageView view) {
+        Object tag = view.getTag();
+        if (tag instanceof Request) {
+            ((Request) tag).cancelled = true;
+            view.setTag(null);
+        }
+    }
+
+    /**
+     * 应用更新或卸载后丢弃缓存的图标，由目录对账调用。
+     */
+    public void evict(String packageName) {
+        cache.remove(packageName);
+    }
+
+    private void decode(Request request) {
+        if (request.cancelled) {
+            return;
+        }
+        Bitmap bitmap = cache.get(request.packageName);
+        if (bitmap == null) {
+            bitmap = rasterize(request.packageName, request.sizePx);
+            if (bitmap == null) {
+                return;
+            }
+            cache.put(request.packageName, bitmap);
+        }
+
+        Bitmap result = bitmap;
+        mainHandler.post(() -> {
+            if (!request.cancelled && request.view.getTag() == request) {
+                request.view.setTag(null);
+                request.view.setImageBitmap(result);
+            }
+        });
+    }
+
+    private Bitmap rasterize(String packageName, int sizePx) {
+        try {
+            Drawable drawable;
+            try {
+                drawable = packageManager.getApplicationIcon(packageName);
+            } catch (PackageManager.NameNotFoundException e) {
+                drawable = packageManager.getDefaultActivityIcon();
+            }
+            // 按显示尺寸绘制，不保留原始分辨率的 Drawable
+            Bitmap bitmap = Bitmap.createBitmap(sizePx, sizePx, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(bitmap);
+            drawable.setBounds(0, 0, sizePx, sizePx);
+            drawable.draw(canvas);
+            return bitmap;
+        } catch (Exception e) {
+            GuardLog.e(TAG, "Error loading icon: " + packageName, e);
+            return null;
+        }
+    }
+
+    private static final class Request {
+        final String packageName;
+        final ImageView view;
+        final int sizePx;
+        volatile boolean cancelled;
+
+        Request(String packageName, ImageView view, int sizePx) {
+            this.packageName = packageName;
+            this.view = view;
+            this.sizePx = sizePx;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.testapp.catalog;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+
+import com.example.testapp.core.catalog.PackageIndex;
+import com.example.testapp.core.catalog.PackageRecord;
+import com.example.testapp.utils.GuardLog;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内的应用元数据索引（系统标志、名称、分类、uid）。
+ * 启动时在后台线程一次性加载，之后由安装/卸载广播增量更新；
+ * 检测和拦截的热路径只查询内存，不再同步调用 PackageManager。
+ * 查不到的包（已卸载或 Android 11 起不可见）同样缓存，名称在首次需要时才加载。
+ */
+public class PackageMetadataIndex {
+    private static final String TAG = "PackageMetadataIndex";
+
+    private static PackageMetadataIndex instance;
+
+    private final Context context;
+    private final PackageManager packageManager;
+    private final PackageIndex index = new PackageIndex();
+    // 查不到的包 -> 标记时的代数，避免每个事件都重复一次系统调用
+    private final ConcurrentHashMap<String, Long> missing = new ConcurrentHashMap<>();
+    // 每次移除递增，批量加载据此跳过加载期间被卸载的包
+    private final AtomicLong generation = new AtomicLong();
+    private boolean loadStarted;
+    private Handler labelLoader;
+
+    public interface LabelCallback {
+        /** 在主线程回调 */
+        void onLabelLoaded(String packageName, String label);
+    }
+
+    private PackageMetadataIndex(Context context) {
+        this.context = context.getApplicationContext();
+        packageManager = this.context.getPackageManager();
+    }
+
+    public static synchronized PackageMetadataIndex getInstance(Context context) {
+        if (instance == null) {
+            instance = new PackageMetadataIndex(context);
+        }
+        return instance;
+    }
+
+    /**
+     * 在后台线程加载全部已安装应用，重复调用无副作用。
+     */
+    public synchronized void loadAsync() {
+        if (loadStarted) {
+            return;
+        }
+        loadStarted = true;
+
+        // Android 8.0 起静态注册的 PackageChangeReceiver 收不到安装/卸载广播，改为动态注册
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            IntentFilter filter = new IntentFilter();
+            filter.addAction(Intent.ACTION_PACKAGE_ADDED);
+            filter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+            filter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+            filter.addDataScheme("package");
+            context.registerReceiver(packageReceiver, filter);
+        }
+
+        new Thread(this::loadAll, "PackageIndexLoader").start();
+    }
+
+    private void loadAll() {
+        try {
+            long start = generation.get();
+            List<ApplicationInfo> installedApps = packageManager.getInstalledApplications(0);
+            int count = 0;
+            for (ApplicationInfo appInfo : installedApps) {
+                Long removedAt = missing.get(appInfo.packageName);
+                if (removedAt != null) {
+                    if (removedAt > start) {
+                        // 加载期间已被卸载，列表是旧的
+                        continue;
+                    }
+                    missing.remove(appInfo.packageName, removedAt);
+                }
+                // 加载期间由广播写入的记录更新，不覆盖
+                index.putIfAbsent(toRecord(appInfo));
+                count++;
+            }
+            GuardLog.d(TAG, "Indexed {} packages", count);
+        } catch (Exception e) {
+            GuardLog.e(TAG, "Error loading package index", e);
+        }
+    }
+
+    public PackageRecord get(String packageName) {
+        PackageRecord record = index.get(packageName);
+        if (record == null && !missing.containsKey(packageName)) {
+            // 索引尚未加载完成或新装应用，单独查询一次并缓存
+            record = refresh(packageName);
+        }
+        return record;
+    }
+
+    public boolean isSystemApp(String packageName) {
+        PackageRecord record = get(packageName);
+        // 如果无法确定，默认为系统应用
+        return record == null || record.isSystemApp();
+    }
+
+    /**
+     * 应用名称，首次查询时加载并缓存，可能调用 PackageManager，不要在检测热路径或主线程上使用。
+     */
+    public String getLabel(String packageName) {
+        PackageRecord record = get(packageName);
+        if (record == null) {
+            return packageName;
+        }
+        if (record.getLabel() == null) {
+            record = loadLabel(record);
+        }
+        return record.getLabel();
+    }
+
+    /**
+     * 在后台线程加载应用名称，完成后在主线程回调，用于界面先显示包名再替换为名称。
+     */
+    public void loadLabelAsync(String packageName, LabelCallback callback) {
+        Handler main = new Handler(Looper.getMainLooper());
+        labelLoader().post(() -> {
+            String label = getLabel(packageName);
+            main.post(() -> callback.onLabelLoaded(packageName, label));
+        });
+    }
+
+    private synchronized Handler labelLoader() {
+        if (labelLoader == null) {
+            HandlerThread thread = new HandlerThread("PackageLabelLoader", Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            labelLoader = new Handler(thread.getLooper());
+        }
+        return labelLoader;
+    }
+
+    /**
+     * 已缓存的应用名称，尚未加载时返回 null，不会调用 PackageManager，可在主线程使用。
+     */
+    public String getCachedLabel(String packageName) {
+        PackageRecord record = index.get(packageName);
+        return record != null ? record.getLabel() : null;
+    }
+
+    public PackageRecord refresh(String packageName) {
+        try {
+            PackageRecord record = toRecord(packageManager.getApplicationInfo(packageName, 0));
+            missing.remove(packageName);
+            index.put(record);
+            return record;
+        } catch (PackageManager.NameNotFoundException e) {
+            remove(packageName);
+            return null;
+        } catch (Exception e) {
+            GuardLog.e(TAG, "Error refreshing package: " + packageName, e);
+            return null;
+        }
+    }
+
+    public void remove(String packageName) {
+        missing.put(packageName, generation.incrementAndGet());
+        index.remove(packageName);
+    }
+
+    private PackageRecord loadLabel(PackageRecord record) {
+        String label;
+        try {
+            label = packageManager.getApplicationInfo(record.getPackageName(), 0)
+                    .loadLabel(packageManager).toString();
+        } catch (Exception e) {
+            label = record.getPackageName();
+        }
+        PackageRecord labeled = record.withLabel(label);
+        // 期间被移除或刷新过则不写回
+        index.replace(record, labeled);
+        return labeled;
+    }
+
+    private PackageRecord toRecord(ApplicationInfo appInfo) {
+        // 名称按需加载，见 getLabel
+        int category = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O ?
+                appInfo.category : PackageRecord.CATEGORY_UNDEFINED;
+        return new PackageRecord(
+                appInfo.packageName,
+                null,
+                (appInfo.flags & ApplicationInfo.FLAG_SYSTEM) != 0,
+                category,
+                appInfo.uid);
+    }
+
+    /**
+     * 根据安装/卸载广播增量更新索引，由 {@link com.example.testapp.receiver.PackageChangeReceiver} 调用。
+     */
+    public void onPackageChanged(Intent intent) {
+        String packageName = intent.getData() != null ? intent.getData().getSchemeSpecificPart() : null;
+        if (packageName == null) {
+            return;
+        }
+        String action = intent.getAction();
+        if (Intent.ACTION_PACKAGE_REMOVED.equals(action)) {
+            if (!intent.getBooleanExtra(Intent.EXTRA_REPLACING, false)) {
+                remove(packageName);
+            }
+        } else if (Intent.ACTION_PACKAGE_ADDED.equals(action) || Intent.ACTION_PACKAGE_REPLACED.equals(action)) {
+            missing.remove(packageName);
+            refresh(packageName);
+        }
+    }
+
+    private final BroadcastReceiver packageReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            onPackageChanged(intent);
+        }
+    };
+}
@@ -0,0 +1,160 @@
+package com.example.testapp.journal;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+
+import com.example.testapp.core.detect.DetectorRegistry;
+import com.example.testapp.core.journal.BlockJournal;
+import com.example.testapp.core.journal.JournalPage;
+import com.example.testapp.core.journal.JournalRecord;
+import com.example.testapp.utils.GuardLog;
+import com.example.testapp.utils.GuardMetrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 拦截日志的写入与查询入口。检测线程只把记录放入无锁队列，
+ * 由 "BlockJournal" 后台线程批量写入 {@link BlockJournal}；队列已满时丢弃记录而不等待。
+ * 同一线程定期压缩旧段，查询也在该线程执行，结果在主线程回调。
+ */
+public final class JournalRecorder {
+    private static final String TAG = "JournalRecorder";
+    private static final String DIR_NAME = "journal";
+    private static final int SEGMENT_BYTES = 64 * 1024;
+    private static final long MAX_TOTAL_BYTES = 2 * 1024 * 1024;
+    private static final int MAX_PENDING = 1024;
+    private static final long BATCH_DELAY_MS = 1000;
+    private static final long COMPACT_INTERVAL_MS = TimeUnit.HOURS.toMillis(1);
+    // 放行记录只保留一天，拦截记录保留到容量上限
+    private static final long ALLOW_RETENTION_MS = TimeUnit.DAYS.toMillis(1);
+
+    public interface Callback {
+        void onPage(JournalPage page);
+    }
+
+    private static JournalRecorder instance;
+
+    private final File dir;
+    private final Handler worker;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ConcurrentLinkedQueue<JournalRecord> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final Runnable drainTask = this::drain;
+    private final Runnable compactTask = this::compact;
+    // 只在后台线程访问；打开失败时为 null，记录被丢弃
+    private BlockJournal journal;
+
+    private JournalRecorder(Context context) {
+        dir = new File(context.getApplicationContext().getFilesDir(), DIR_NAME);
+        HandlerThread thread = new HandlerThread("BlockJournal", Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        worker = new Handler(thread.getLooper());
+        worker.post(this::open);
+    }
+
+    public static synchronized JournalRecorder getInstance(Context context) {
+        if (instance == null) {
+            instance = new JournalRecorder(context);
+        }
+        return instance;
+    }
+
+    /**
+     * 记录一次判定，可在任意线程调用，不会等待磁盘。
+     * detectedAt 与 decidedAt 为 {@code SystemClock.elapsedRealtimeNanos()}。
+     */
+    public void record(String packageName, DetectorRegistry.Source source, JournalRecord.Decision decision,
+                       long detectedAt, long decidedAt) {
+        if (pendingCount.incrementAndGet() > MAX_PENDING) {
+            pendingCount.decrementAndGet();
+            GuardMetrics.getInstance().recordJournalDropped();
+            return;
+        }
+        pending.offer(new JournalRecord(System.currentTimeMillis(), packageName, source, decision,
+                decidedAt - detectedAt));
+        if (drainScheduled.compareAndSet(false, true)) {
+            worker.postDelayed(drainTask, BATCH_DELAY_MS);
+        }
+    }
+
+    /**
+     * 查询 [fromTime, toTime] 内的记录，从新到旧分页返回。
+     */
+    public void query(long fromTime, long toTime, long cursor, int limit, Callback callback) {
+        worker.post(() -> {
+            // 先写入排队中的记录，保证能查到刚刚发生的判定
+            drain();
+            JournalPage page = null;
+            if (journal != null) {
+                try {
+                    page = journal.query(fromTime, toTime, cursor, limit);
+                } catch (IOException e) {
+                    GuardLog.e(TAG, "Error querying journal", e);
+                }
+            }
+            JournalPage result = page;
+            mainHandler.post(() -> callback.onPage(result));
+        });
+    }
+
+    private void open() {
+        try {
+            journal = new BlockJournal(dir, SEGMENT_BYTES, MAX_TOTAL_BYTES);
+            GuardLog.i(TAG, "Journal opened: {} records in {} segments",
+                    journal.getRecordCount(), journal.getSegmentCount());
+            compact();
+        } catch (IOException e) {
+            GuardLog.e(TAG, "Error opening journal", e);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        JournalRecord record;
+        int written = 0;
+        while ((record = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            if (journal == null) {
+                continue;
+            }
+            try {
+                journal.append(record);
+                written++;
+            } catch (IOException | IllegalArgumentException e) {
+                GuardLog.e(TAG, "Error appending to journal", e);
+            }
+        }
+        if (written == 0) {
+            return;
+        }
+        try {
+            journal.flush();
+        } catch (IOException e) {
+            GuardLog.e(TAG, "Error flushing journal", e);
+        }
+    }
+
+    private void compact() {
+        worker.removeCallbacks(compactTask);
+        if (journal != null) {
+            try {
+                long reclaimed = journal.compact(System.currentTimeMillis() - ALLOW_RETENTION_MS);
+                if (reclaimed > 0) {
+                    GuardLog.i(TAG, "Journal compacted, {} bytes reclaimed", reclaimed);
+                }
+            } catch (IOException e) {
+                GuardLog.e(TAG, "Error compacting journal", e);
+            }
+        }
+        worker.postDelayed(compactTask, COMPACT_INTERVAL_MS);
+    }
+}
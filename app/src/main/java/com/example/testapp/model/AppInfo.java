@@ -1,22 +1,19 @@
 package com.example.testapp.model;
 
-import android.graphics.drawable.Drawable;
+import com.example.testapp.core.catalog.CatalogItem;
 
-public class AppInfo {
+public class AppInfo implements CatalogItem {
     private String packageName;
     private String appName;
-    private Drawable icon;
-    private boolean isSelected;
     private boolean isSystemApp;
 
-    public AppInfo(String packageName, String appName, Drawable icon, boolean isSystemApp) {
+    public AppInfo(String packageName, String appName, boolean isSystemApp) {
         this.packageName = packageName;
         this.appName = appName;
-        this.icon = icon;
         this.isSystemApp = isSystemApp;
-        this.isSelected = false;
     }
 
+    @Override
     public String getPackageName() {
         return packageName;
     }
@@ -25,6 +22,7 @@ public class AppInfo {
         this.packageName = packageName;
     }
 
+    @Override
     public String getAppName() {
         return appName;
     }
@@ -33,22 +31,6 @@ public class AppInfo {
         this.appName = appName;
     }
 
-    public Drawable getIcon() {
-        return icon;
-    }
-
-    public void setIcon(Drawable icon) {
-        this.icon = icon;
-    }
-
-    public boolean isSelected() {
-        return isSelected;
-    }
-
-    public void setSelected(boolean selected) {
-        isSelected = selected;
-    }
-
     public boolean isSystemApp() {
         return isSystemApp;
     }
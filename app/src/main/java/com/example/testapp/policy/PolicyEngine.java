@@ -0,0 +1,231 @@
+package com.example.testapp.policy;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+
+import com.example.testapp.core.policy.BlockPolicy;
+import com.example.testapp.core.policy.PolicyData;
+import com.example.testapp.core.policy.PolicyDelta;
+import com.example.testapp.core.settings.Setting;
+import com.example.testapp.settings.SettingsRepository;
+import com.example.testapp.utils.GuardLog;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 拦截策略引擎：把 {@link SettingsRepository} 中的模式、保护开关和 {@link PolicyStore} 中的应用列表编译成
+ * {@link BlockPolicy}，仅在相关配置变化时重建，检测服务每次事件只读取当前快照。
+ * 列表的修改经由本类写入策略文件，写盘在后台线程按顺序执行。
+ * 设置和策略文件涉及密钥库与解密，在后台线程加载；加载完成前快照不拦截任何应用，
+ * 期间的修改排在加载之后执行。策略文件无法读取时保留当前快照并记录错误，
+ * 界面通过 {@link #whenLoaded} 得知加载结果，通过 {@link SaveCallback} 得知写入结果。
+ */
+public final class PolicyEngine implements SettingsRepository.Listener {
+    private static final String TAG = "PolicyEngine";
+
+    /** 旧版列表所在的配置文件，仅用于迁移 */
+    public static final String PREFS_NAME = "app_prefs";
+
+    public interface Listener {
+        /** 在发布线程上同步回调，实现方只做快照替换等轻量操作 */
+        void onPolicyChanged(BlockPolicy policy, PolicyDelta delta);
+    }
+
+    public interface LoadCallback {
+        /** 在主线程回调，readable 为 false 表示策略文件无法读取，列表为空且修改不会保存 */
+        void onPolicyLoaded(boolean readable);
+    }
+
+    public interface SaveCallback {
+        /** 写盘完成后在主线程回调 */
+        void onPolicySaved(boolean saved);
+    }
+
+    private static PolicyEngine instance;
+
+    private final Context appContext;
+    private final String selfPackage;
+    private final PolicyStore store;
+    private final Handler writer;
+    private final Handler main = new Handler(Looper.getMainLooper());
+    // 在写线程加载完成后才赋值，为 null 表示尚未就绪
+    private volatile SettingsRepository settings;
+    private volatile PolicyData lists = PolicyData.EMPTY;
+    private volatile BlockPolicy policy;
+    private long version;
+    // 以下由 this 保护
+    private boolean loaded;
+    private boolean readable = true;
+    private final List<LoadCallback> loadCallbacks = new ArrayList<>();
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private PolicyEngine(Context context) {
+        appContext = context.getApplicationContext();
+        selfPackage = appContext.getPackageName();
+        store = new PolicyStore(appContext, appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE));
+        HandlerThread thread = new HandlerThread("PolicyWriter", Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        writer = new Handler(thread.getLooper());
+        policy = compile(++version);
+        writer.post(this::load);
+    }
+
+    private void load() {
+        SettingsRepository repository = SettingsRepository.getInstance(appContext);
+        boolean readable = true;
+        try {
+            lists = store.load();
+        } catch (IOException e) {
+            // 不迁移、不写入空策略，保留当前快照
+            GuardLog.e(TAG, "Policy file unreadable, keeping previous snapshot", e);
+            readable = false;
+        }
+        settings = repository;
+        invalidate();
+        // 所有字段就绪后才注册，设置变化的回调可能在其他线程立即到来
+        repository.addListener(this);
+        synchronized (this) {
+            loaded = true;
+            this.readable = readable;
+            for (LoadCallback callback : loadCallbacks) {
+                whenLoaded(callback);
+            }
+            loadCallbacks.clear();
+        }
+    }
+
+    /**
+     * 策略文件加载完成后在主线程回调，已加载则立即投递。界面应在此之后再读取和保存列表。
+     */
+    public synchronized void whenLoaded(LoadCallback callback) {
+        if (loaded) {
+            boolean current = readable;
+            main.post(() -> callback.onPolicyLoaded(current));
+        } else {
+            loadCallbacks.add(callback);
+        }
+    }
+
+    public static synchronized PolicyEngine getInstance(Context context) {
+        if (instance == null) {
+            instance = new PolicyEngine(context);
+        }
+        return instance;
+    }
+
+    public BlockPolicy getPolicy() {
+        return policy;
+    }
+
+    public Set<String> getPackages(boolean blacklistMode) {
+        return lists.getPackages(blacklistMode);
+    }
+
+    public PolicyData getLists() {
+        return lists;
+    }
+
+    /**
+     * 替换黑名单或白名单。内存快照立即生效，文件在后台写入，结果通过 callback 返回（可为 null）。
+     */
+    public synchronized void savePackages(boolean blacklistMode, Collection<String> packages,
+                                          SaveCallback callback) {
+        if (settings == null) {
+            // 尚未加载，在加载完成后与已保存的另一份列表合并
+            List<String> copy = new ArrayList<>(packages);
+            writer.post(() -> savePackages(blacklistMode, copy, callback));
+            return;
+        }
+        update(lists.withPackages(blacklistMode, packages), false, callback);
+    }
+
+    /**
+     * 清空两个列表，用于重置设置和清除数据。无法读取的策略文件也一并删除。
+     */
+    public synchronized void clearPackages() {
+        if (settings == null) {
+            writer.post(this::clearPackages);
+            return;
+        }
+        // 无法读取的文件随之删除，之后的修改可以正常保存
+        readable = true;
+        update(PolicyData.EMPTY, true, null);
+    }
+
+    private void update(PolicyData data, boolean reset, SaveCallback callback) {
+        lists = data;
+        writer.post(() -> {
+            boolean saved = false;
+            try {
+                if (reset) {
+                    store.reset();
+                }
+                store.save(data);
+                saved = true;
+            } catch (IOException e) {
+                GuardLog.e(TAG, "Error saving policy", e);
+            }
+            if (callback != null) {
+                boolean result = saved;
+                main.post(() -> callback.onPolicySaved(result));
+            }
+        });
+        invalidate();
+    }
+
+    /**
+     * 重建快照并以新版本号发布给检测服务，服务原子替换快照，无需重启。
+     */
+    public synchronized void invalidate() {
+        long publishedAt = SystemClock.elapsedRealtimeNanos();
+        BlockPolicy previous = policy;
+        BlockPolicy compiled = compile(++version);
+        PolicyDelta delta = PolicyDelta.between(previous, compiled, publishedAt);
+        policy = compiled;
+        if (delta.isEmpty()) {
+            return;
+        }
+        GuardLog.d(TAG, "Published policy v{}, {} packages changed", compiled.getVersion(),
+                delta.getAdded().size() + delta.getRemoved().size());
+        for (Listener listener : listeners) {
+            listener.onPolicyChanged(compiled, delta);
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void onSettingChanged(Setting setting, boolean value) {
+        if (setting == Setting.PROTECTION_ENABLED || setting == Setting.BLACKLIST_MODE) {
+            invalidate();
+        }
+    }
+
+    private BlockPolicy compile(long version) {
+        SettingsRepository current = settings;
+        BlockPolicy compiled = BlockPolicy.compile(
+                selfPackage,
+                current != null && current.get(Setting.PROTECTION_ENABLED),
+                current == null || current.get(Setting.BLACKLIST_MODE),
+                lists,
+                version);
+        GuardLog.d(TAG, "Policy compiled: {}, {} packages",
+                compiled.isBlacklistMode() ? "黑名单" : "白名单", compiled.getPackages().size());
+        return compiled;
+    }
+}
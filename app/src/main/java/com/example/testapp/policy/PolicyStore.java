@@ -0,0 +1,224 @@
+package com.example.testapp.policy;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.security.crypto.EncryptedFile;
+
+import com.example.testapp.core.policy.PackageLists;
+import com.example.testapp.core.policy.PolicyCodec;
+import com.example.testapp.core.policy.PolicyData;
+import com.example.testapp.utils.GuardLog;
+import com.example.testapp.utils.SecureStorage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.GeneralSecurityException;
+
+/**
+ * 黑白名单的持久化文件（格式见 {@link PolicyCodec}），使用 {@link SecureStorage} 加密保存。
+ * 只在加载时解密一次，解码结果由 {@link PolicyEngine} 缓存，判定路径不涉及加解密。
+ * 写入时先写临时文件并同步到磁盘再重命名，不会留下半个文件。
+ * 首次使用时从旧的明文 policy.bin 或 app_prefs 中的逗号分隔字符串迁移，迁移后删除旧数据。
+ * 密钥库不可用时退回明文文件，保证拦截配置仍然可用；加载时读取两者中较新的一个，
+ * 密钥库可用时重新加密并删除明文文件。
+ * 加密文件存在却无法读取（密钥库不可用或解密失败）时 {@link #load()} 抛出异常，
+ * 之后拒绝覆盖该文件，直到 {@link #reset()}，不会用迁移结果或空策略替换原有配置。
+ * 密钥库在首次读写时才初始化，应在后台线程调用。
+ */
+public class PolicyStore {
+    private static final String TAG = "PolicyStore";
+    private static final String FILE_NAME = "policy.enc";
+    private static final String PLAIN_FILE_NAME = "policy.bin";
+    // 加密时文件名参与认证，临时文件放在单独目录下并与正式文件同名
+    private static final String TEMP_DIR = "policy_tmp";
+
+    // 旧版本保存在 app_prefs 中的列表键，仅用于迁移
+    static final String LEGACY_KEY_BLACKLIST_APPS = "blacklist_apps";
+    static final String LEGACY_KEY_WHITELIST_APPS = "whitelist_apps";
+
+    private final File file;
+    private final File tempFile;
+    private final File plainFile;
+    private final SharedPreferences prefs;
+    private final Context context;
+    private boolean keystoreOpened;
+    private EncryptedFile encryptedFile;
+    private EncryptedFile encryptedTemp;
+    // 加密文件存在但无法读取，禁止覆盖
+    private boolean unreadable;
+
+    public PolicyStore(Context context, SharedPreferences prefs) {
+        File dir = context.getFilesDir();
+        this.context = context;
+        this.file = new File(dir, FILE_NAME);
+        this.tempFile = new File(new File(dir, TEMP_DIR), FILE_NAME);
+        this.plainFile = new File(dir, PLAIN_FILE_NAME);
+        this.prefs = prefs;
+    }
+
+    /**
+     * 读取策略文件，首次使用时迁移旧数据。加密文件存在但无法读取时抛出 IOException，不做迁移。
+     */
+    public synchronized PolicyData load() throws IOException {
+        openKeystore();
+        long start = System.nanoTime();
+        PolicyData data;
+        if (plainFile.exists() && (encryptedFile == null || !file.exists()
+                || plainFile.lastModified() >= file.lastModified())) {
+            // 首次加密，或密钥库不可用期间保存的明文文件比加密文件新
+            data = readPlain();
+            if (encryptedFile != null) {
+                migratePlain(data);
+            }
+        } else if (file.exists()) {
+            try {
+                if (encryptedFile == null) {
+                    throw new IOException("Keystore unavailable, cannot read " + file);
+                }
+                data = PolicyCodec.decode(ByteBuffer.wrap(decrypt()));
+            } catch (IOException e) {
+                unreadable = true;
+                throw e;
+            }
+            // 上次迁移后未能删除的旧明文
+            plainFile.delete();
+        } else {
+            return migrate();
+        }
+        GuardLog.d(TAG, "Loaded policy in {} us, {} entries", (System.nanoTime() - start) / 1000,
+                data.getBlacklist().size() + data.getWhitelist().size());
+        return data;
+    }
+
+    public synchronized void save(PolicyData data) throws IOException {
+        if (unreadable) {
+            throw new IOException("Refusing to overwrite unreadable " + file);
+        }
+        openKeystore();
+        byte[] bytes = PolicyCodec.encode(data);
+        if (encryptedTemp == null) {
+            savePlain(bytes);
+            return;
+        }
+        File dir = tempFile.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Failed to create " + dir);
+        }
+        // EncryptedFile 不允许覆盖已存在的文件
+        tempFile.delete();
+        try (FileOutputStream output = encryptedTemp.openFileOutput()) {
+            output.write(bytes);
+        } catch (GeneralSecurityException | IOException e) {
+            tempFile.delete();
+            throw e instanceof IOException ? (IOException) e : new IOException(e);
+        }
+        // 加密流在关闭时才写出最后一段，关闭后再通过新的描述符同步到磁盘
+        try (FileOutputStream sync = new FileOutputStream(tempFile, true)) {
+            sync.getFD().sync();
+        }
+        replace(tempFile, file);
+    }
+
+    /**
+     * 删除现有策略文件（包括无法读取的加密文件），用于重置设置后重新保存。
+     */
+    public synchronized void reset() {
+        file.delete();
+        plainFile.delete();
+        unreadable = false;
+    }
+
+    private void openKeystore() {
+        if (keystoreOpened) {
+            return;
+        }
+        keystoreOpened = true;
+        try {
+            encryptedFile = SecureStorage.file(context, file);
+            encryptedTemp = SecureStorage.file(context, tempFile);
+        } catch (GeneralSecurityException | IOException e) {
+            GuardLog.e(TAG, "Keystore unavailable, policy will be stored in plaintext", e);
+            encryptedFile = null;
+            encryptedTemp = null;
+        }
+    }
+
+    private byte[] decrypt() throws IOException {
+        try (FileInputStream input = encryptedFile.openFileInput()) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream((int) file.length());
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Failed to decrypt " + file, e);
+        }
+    }
+
+    private PolicyData readPlain() throws IOException {
+        try (RandomAccessFile input = new RandomAccessFile(plainFile, "r");
+             FileChannel channel = input.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return PolicyCodec.decode(buffer);
+        }
+    }
+
+    private void savePlain(byte[] bytes) throws IOException {
+        File temp = new File(plainFile.getPath() + ".tmp");
+        try (FileOutputStream output = new FileOutputStream(temp)) {
+            output.write(bytes);
+            output.getFD().sync();
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+        replace(temp, plainFile);
+    }
+
+    private static void replace(File source, File target) throws IOException {
+        if (!source.renameTo(target)) {
+            source.delete();
+            throw new IOException("Failed to replace " + target);
+        }
+    }
+
+    private void migratePlain(PolicyData data) {
+        try {
+            save(data);
+            // 加密文件落盘后才删除明文文件，中途失败下次启动会重新迁移
+            plainFile.delete();
+            GuardLog.i(TAG, "Encrypted existing policy file");
+        } catch (IOException e) {
+            GuardLog.e(TAG, "Error encrypting policy file", e);
+        }
+    }
+
+    private PolicyData migrate() {
+        PolicyData data = new PolicyData(
+                PackageLists.parse(prefs.getString(LEGACY_KEY_BLACKLIST_APPS, "")),
+                PackageLists.parse(prefs.getString(LEGACY_KEY_WHITELIST_APPS, "")));
+        try {
+            save(data);
+            // 新文件落盘后才删除旧键，中途失败下次启动会重新迁移
+            prefs.edit()
+                    .remove(LEGACY_KEY_BLACKLIST_APPS)
+                    .remove(LEGACY_KEY_WHITELIST_APPS)
+                    .apply();
+            GuardLog.i(TAG, "Migrated {} blacklist and {} whitelist entries from app_prefs",
+                    data.getBlacklist().size(), data.getWhitelist().size());
+        } catch (IOException e) {
+            GuardLog.e(TAG, "Error migrating policy from app_prefs", e);
+        }
+        return data;
+    }
+}
@@ -6,6 +6,7 @@ import android.content.Intent;
 import android.util.Log;
 
 import com.example.testapp.BlockOverlayActivity;
+import com.example.testapp.catalog.PackageMetadataIndex;
 import com.example.testapp.services.AppBlockAccessibilityService;
 
 public class PackageChangeReceiver extends BroadcastReceiver {
@@ -22,6 +23,9 @@ public class PackageChangeReceiver extends BroadcastReceiver {
 
         Log.d(TAG, "Package change detected: " + action + ", package: " + packageName);
 
+        // 同步更新应用元数据索引
+        PackageMetadataIndex.getInstance(context).onPackageChanged(intent);
+
         // 检测应用安装
         if (Intent.ACTION_PACKAGE_ADDED.equals(action)) {
             handlePackageAdded(context, packageName);
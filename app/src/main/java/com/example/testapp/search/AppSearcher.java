@@ -0,0 +1,83 @@
+package com.example.testapp.search;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+
+import com.example.testapp.core.search.SearchIndex;
+import com.example.testapp.model.AppInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 应用列表搜索。索引在每次目录加载后于后台线程重建；输入查询经过防抖后在同一线程执行，
+ * 新的查询会取消尚未开始的旧查询，已过期的结果不会交付。结果在主线程回调。
+ */
+public class AppSearcher {
+    private static final long DEBOUNCE_MS = 150;
+    private static final Object QUERY_TOKEN = new Object();
+
+    public interface Callback {
+        void onResults(List<AppInfo> results);
+    }
+
+    private final HandlerThread thread;
+    private final Handler worker;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger generation = new AtomicInteger();
+    // 以下字段只在搜索线程访问
+    private SearchIndex.Pinyin pinyin;
+    private SearchIndex<AppInfo> index;
+
+    public AppSearcher() {
+        thread = new HandlerThread("AppSearch", Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        worker = new Handler(thread.getLooper());
+    }
+
+    /**
+     * 用新的应用列表重建索引，并立即按当前查询返回一次结果。
+     */
+    public void setItems(List<AppInfo> items, String query, Callback callback) {
+        List<AppInfo> snapshot = new ArrayList<>(items);
+        worker.post(() -> {
+            if (pinyin == null) {
+                pinyin = IcuPinyin.create();
+            }
+            index = SearchIndex.build(snapshot, pinyin);
+        });
+        schedule(query, callback, 0);
+    }
+
+    public void search(String query, Callback callback) {
+        schedule(query, callback, DEBOUNCE_MS);
+    }
+
+    public void stop() {
+        generation.incrementAndGet();
+        thread.quitSafely();
+    }
+
+    private void schedule(String query, Callback callback, long delayMs) {
+        int token = generation.incrementAndGet();
+        worker.removeCallbacksAndMessages(QUERY_TOKEN);
+        worker.postAtTime(() -> run(token, query, callback), QUERY_TOKEN, SystemClock.uptimeMillis() + delayMs);
+    }
+
+    private void run(int token, String query, Callback callback) {
+        SearchIndex<AppInfo> current = index;
+        if (current == null || token != generation.get()) {
+            return;
+        }
+        List<AppInfo> results = current.query(query);
+        mainHandler.post(() -> {
+            if (token == generation.get()) {
+                callback.onResults(results);
+            }
+        });
+    }
+}
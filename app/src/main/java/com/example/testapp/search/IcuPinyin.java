@@ -0,0 +1,53 @@
+package com.example.testapp.search;
+
+import android.annotation.TargetApi;
+import android.icu.text.Transliterator;
+import android.os.Build;
+
+import com.example.testapp.core.search.SearchIndex;
+
+/**
+ * 基于系统 ICU 的汉字转拼音（Android 10 起可用），按字符缓存结果。
+ * Transliterator 非线程安全，只在搜索线程中使用。
+ */
+@TargetApi(Build.VERSION_CODES.Q)
+final class IcuPinyin implements SearchIndex.Pinyin {
+    // CJK 统一汉字基本区
+    private static final char FIRST = '一';
+    private static final char LAST = '鿿';
+
+    private final Transliterator transliterator = Transliterator.getInstance("Han-Latin; Latin-ASCII; Lower");
+    private final String[] cache = new String[LAST - FIRST + 1];
+
+    private IcuPinyin() {
+    }
+
+    static SearchIndex.Pinyin create() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            return new IcuPinyin();
+        }
+        // 低版本系统没有公开的 ICU 转写接口，只按名称和包名搜索
+        return SearchIndex.NO_PINYIN;
+    }
+
+    @Override
+    public String of(char c) {
+        if (c < FIRST || c > LAST) {
+            return null;
+        }
+        String syllable = cache[c - FIRST];
+        if (syllable == null) {
+            String latin = transliterator.transliterate(String.valueOf(c));
+            StringBuilder letters = new StringBuilder(latin.length());
+            for (int i = 0; i < latin.length(); i++) {
+                char ch = latin.charAt(i);
+                if (ch >= 'a' && ch <= 'z') {
+                    letters.append(ch);
+                }
+            }
+            syllable = letters.toString();
+            cache[c - FIRST] = syllable;
+        }
+        return syllable.isEmpty() ? null : syllable;
+    }
+}
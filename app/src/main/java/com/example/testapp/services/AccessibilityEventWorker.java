@@ -0,0 +1,74 @@
+package com.example.testapp.services;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+
+import com.example.testapp.utils.GuardMetrics;
+
+/**
+ * 无障碍事件的单消费者后台队列。
+ * 主线程只负责投递包名；同一应用连续的窗口状态事件在被处理前合并为一次判定。
+ */
+public class AccessibilityEventWorker {
+    public interface Callback {
+        void handle(String packageName, long detectedAt);
+    }
+
+    private final Object lock = new Object();
+    private final Callback target;
+    private HandlerThread thread;
+    private Handler handler;
+    // 最近一次投递且尚未处理的包名
+    private String pendingPackage;
+
+    public AccessibilityEventWorker(Callback target) {
+        this.target = target;
+    }
+
+    public void start() {
+        synchronized (lock) {
+            thread = new HandlerThread("AccessibilityEvents", Process.THREAD_PRIORITY_FOREGROUND);
+            thread.start();
+            handler = new Handler(thread.getLooper());
+        }
+    }
+
+    public void stop() {
+        synchronized (lock) {
+            if (thread != null) {
+                thread.quitSafely();
+                thread = null;
+                handler = null;
+                pendingPackage = null;
+            }
+        }
+    }
+
+    /**
+     * 投递一个前台窗口变化，可在主线程调用，不做任何耗时操作。
+     */
+    public void submit(String packageName, long detectedAt) {
+        synchronized (lock) {
+            if (handler == null) {
+                return;
+            }
+            if (packageName.equals(pendingPackage)) {
+                // 与队尾同一应用的突发事件，合并到已排队的判定中
+                GuardMetrics.getInstance().recordEventCoalesced();
+                return;
+            }
+            pendingPackage = packageName;
+            handler.post(() -> process(packageName, detectedAt));
+        }
+    }
+
+    private void process(String packageName, long detectedAt) {
+        synchronized (lock) {
+            if (packageName.equals(pendingPackage)) {
+                pendingPackage = null;
+            }
+        }
+        target.handle(packageName, detectedAt);
+    }
+}
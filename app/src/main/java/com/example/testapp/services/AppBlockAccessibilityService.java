@@ -1,166 +1,179 @@
 package com.example.testapp.services;
 
 import android.accessibilityservice.AccessibilityService;
+import android.accessibilityservice.AccessibilityServiceInfo;
 import android.content.Intent;
-import android.util.Log;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.view.accessibility.AccessibilityEvent;
 
-public class AppBlockAccessibilityService extends AccessibilityService {
+import com.example.testapp.catalog.PackageMetadataIndex;
+import com.example.testapp.core.detect.DetectorRegistry;
+import com.example.testapp.core.journal.JournalRecord;
+import com.example.testapp.core.policy.BlockPolicy;
+import com.example.testapp.core.policy.PolicyDelta;
+import com.example.testapp.journal.JournalRecorder;
+import com.example.testapp.policy.PolicyEngine;
+import com.example.testapp.utils.GuardLog;
+import com.example.testapp.utils.GuardMetrics;
+
+import java.util.Set;
+
+public class AppBlockAccessibilityService extends AccessibilityService implements PolicyEngine.Listener {
     private static final String TAG = "AppBlockAccessibilityService";
+    // 黑名单超过该数量时不再缩小订阅范围，避免过大的 Binder 传输
+    private static final int MAX_FILTERED_PACKAGES = 1000;
+    private static final long TIMEOUT_FILTERED = 0;
+    private static final long TIMEOUT_ALL_PACKAGES = 100;
+    private static final long TIMEOUT_IDLE = 1000;
+
+    private final DetectorRegistry detectorRegistry = DetectorRegistry.getInstance();
+
+    private final AccessibilityEventWorker eventWorker = new AccessibilityEventWorker(this::handleWindowStateChange);
+
+    // 订阅范围只在主线程更新，避免不同线程的 getServiceInfo/setServiceInfo 交错覆盖
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable applyFilterTask = this::applyEventFilter;
+    // 最近一次应用到订阅范围的策略版本，只在主线程访问
+    private long appliedVersion = -1;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        eventWorker.start();
+    }
 
     @Override
     public void onAccessibilityEvent(AccessibilityEvent event) {
+        long detectedAt = SystemClock.elapsedRealtimeNanos();
+        // 中断后重新收到事件，说明连接已恢复
+        if (!detectorRegistry.isAlive(DetectorRegistry.Source.ACCESSIBILITY)) {
+            detectorRegistry.markAlive(DetectorRegistry.Source.ACCESSIBILITY);
+        }
+
         if (event.getEventType() == AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED) {
-            String packageName = event.getPackageName() != null ? event.getPackageName().toString() : null;
-            
+            CharSequence packageName = event.getPackageName();
             if (packageName != null) {
-                Log.d(TAG, "窗口状态改变: " + packageName);
-                
-                // 检查是否需要拦截
-                handleWindowStateChange(packageName);
+                // 判定和拦截在后台线程完成，主线程只负责投递
+                eventWorker.submit(packageName.toString(), detectedAt);
             }
         }
     }
 
     @Override
     public void onInterrupt() {
-        Log.d(TAG, "Accessibility service interrupted");
+        GuardLog.i(TAG, "Accessibility service interrupted");
+        // 交回轮询检测兜底
+        detectorRegistry.markDead(DetectorRegistry.Source.ACCESSIBILITY);
     }
 
     @Override
     protected void onServiceConnected() {
         super.onServiceConnected();
-        Log.d(TAG, "Accessibility service connected");
+        GuardLog.i(TAG, "Accessibility service connected");
+        PackageMetadataIndex.getInstance(this).loadAsync();
+        detectorRegistry.markAlive(DetectorRegistry.Source.ACCESSIBILITY);
+
+        PolicyEngine.getInstance(this).addListener(this);
+        // 重新连接后系统恢复为配置文件中的订阅范围，需要重新应用
+        appliedVersion = -1;
+        applyEventFilter();
     }
 
-    private void handleWindowStateChange(String packageName) {
-        // 实时检测前台应用
+    @Override
+    public void onPolicyChanged(BlockPolicy policy, PolicyDelta delta) {
+        // 判定路径每次事件读取 PolicyEngine 的最新快照，这里只需同步事件订阅范围
+        mainHandler.removeCallbacks(applyFilterTask);
+        mainHandler.post(applyFilterTask);
+        GuardMetrics.getInstance().recordPolicyApplied(delta);
+    }
+
+    /**
+     * 按当前策略缩小事件订阅范围，系统不再为不可能被拦截的应用唤醒本进程。
+     * 在主线程调用，读取引擎的最新快照，不早于已应用的版本。
+     */
+    private void applyEventFilter() {
         try {
-            // 确保自身不被拦截
-            if (packageName.equals(getPackageName())) {
+            BlockPolicy policy = PolicyEngine.getInstance(this).getPolicy();
+            if (policy.getVersion() <= appliedVersion) {
                 return;
             }
-            
-            // 确保系统应用不被拦截
-            if (isSystemApp(packageName)) {
+            AccessibilityServiceInfo info = getServiceInfo();
+            if (info == null) {
                 return;
             }
-            
-            // 检查是否需要拦截该应用
-            if (shouldBlockApp(packageName)) {
-                Log.d(TAG, "Blocking app: " + packageName);
-                performBlockAction(packageName);
+
+            Set<String> packages = policy.getPackages();
+            if (!policy.isProtectionEnabled() || (policy.isBlacklistMode() && packages.isEmpty())) {
+                // 不会拦截任何应用，只保留对自身的订阅
+                info.packageNames = new String[]{getPackageName()};
+                info.notificationTimeout = TIMEOUT_IDLE;
+            } else if (policy.isBlacklistMode() && packages.size() <= MAX_FILTERED_PACKAGES) {
+                // 黑名单模式只关心列表中的应用，事件稀少，无需延迟合并
+                info.packageNames = packages.toArray(new String[0]);
+                info.notificationTimeout = TIMEOUT_FILTERED;
+            } else {
+                // 白名单模式需要观察所有应用；黑名单超过 MAX_FILTERED_PACKAGES 时也不再缩小订阅范围
+                info.packageNames = null;
+                info.notificationTimeout = TIMEOUT_ALL_PACKAGES;
             }
+            setServiceInfo(info);
+            appliedVersion = policy.getVersion();
+            GuardLog.d(TAG, "Event filter updated: {} packages, timeout {} ms",
+                    info.packageNames == null ? "all" : info.packageNames.length, info.notificationTimeout);
         } catch (Exception e) {
-            Log.e(TAG, "Error handling window state change", e);
+            GuardLog.e(TAG, "Error updating event filter", e);
         }
     }
-    
-    private boolean isSystemApp(String packageName) {
-        try {
-            android.content.pm.ApplicationInfo appInfo = getPackageManager().getApplicationInfo(packageName, 0);
-            return (appInfo.flags & android.content.pm.ApplicationInfo.FLAG_SYSTEM) != 0;
-        } catch (Exception e) {
-            return true; // 如果无法确定，默认为系统应用
-        }
-    }
-    
-    private boolean shouldBlockApp(String packageName) {
-        // 不拦截自身应用
-        if (getPackageName().equals(packageName)) {
-            return false;
-        }
-        
-        // 不拦截系统应用和系统界面
-        if (packageName.equals("com.android.systemui") ||
-            packageName.equals("com.android.launcher3") ||
-            packageName.startsWith("com.android.") ||
-            packageName.equals("android")) {
-            return false;
-        }
-        
-        // 获取拦截列表
-        String blockedApps = getSharedPreferences("app_prefs", MODE_PRIVATE)
-                .getString("blacklist_apps", "");
-        String whitelistApps = getSharedPreferences("app_prefs", MODE_PRIVATE)
-                .getString("whitelist_apps", "");
-        boolean isBlacklistMode = getSharedPreferences("app_prefs", MODE_PRIVATE)
-                .getBoolean("is_blacklist_mode", true);
-        
-        // 检查保护是否启用
-        boolean protectionEnabled = getSharedPreferences("app_prefs", MODE_PRIVATE)
-                .getBoolean("protection_enabled", true);
-        
-        // 添加调试日志
-        Log.d(TAG, "检查应用: " + packageName);
-        Log.d(TAG, "保护启用: " + protectionEnabled);
-        Log.d(TAG, "模式: " + (isBlacklistMode ? "黑名单" : "白名单"));
-        Log.d(TAG, "黑名单: " + blockedApps);
-        Log.d(TAG, "白名单: " + whitelistApps);
-        
-        if (!protectionEnabled) {
-            Log.d(TAG, "保护未启用，不拦截");
-            return false;
-        }
-        
-        boolean shouldBlock = false;
-        if (isBlacklistMode) {
-            // 黑名单模式：精确匹配包名
-            if (!blockedApps.isEmpty()) {
-                String[] blockedPackages = blockedApps.split(",");
-                for (String blockedPackage : blockedPackages) {
-                    if (blockedPackage.trim().equals(packageName)) {
-                        shouldBlock = true;
-                        break;
-                    }
-                }
-            }
-            Log.d(TAG, "黑名单模式，是否拦截: " + shouldBlock);
-        } else {
-            // 白名单模式：检查是否不在白名单中
-            if (!whitelistApps.isEmpty()) {
-                shouldBlock = true; // 默认拦截
-                String[] whitelistPackages = whitelistApps.split(",");
-                for (String whitelistPackage : whitelistPackages) {
-                    if (whitelistPackage.trim().equals(packageName)) {
-                        shouldBlock = false; // 在白名单中，不拦截
-                        break;
-                    }
-                }
-            }
-            Log.d(TAG, "白名单模式，是否拦截: " + shouldBlock);
-        }
-        
-        return shouldBlock;
+
+    @Override
+    public boolean onUnbind(Intent intent) {
+        GuardLog.i(TAG, "Accessibility service unbound");
+        PolicyEngine.getInstance(this).removeListener(this);
+        detectorRegistry.markDead(DetectorRegistry.Source.ACCESSIBILITY);
+        return super.onUnbind(intent);
     }
 
     @Override
-    public int onStartCommand(Intent intent, int flags, int startId) {
-        if (intent != null) {
-            String action = intent.getStringExtra("action");
-            String packageName = intent.getStringExtra("package_name");
+    public void onDestroy() {
+        detectorRegistry.markDead(DetectorRegistry.Source.ACCESSIBILITY);
+        PolicyEngine.getInstance(this).removeListener(this);
+        mainHandler.removeCallbacks(applyFilterTask);
+        eventWorker.stop();
+        super.onDestroy();
+    }
+
+    private void handleWindowStateChange(String packageName, long detectedAt) {
+        // 实时检测前台应用，运行在事件处理线程上
+        GuardLog.d(TAG, "窗口状态改变: {}", packageName);
+        try {
+            // 自身、系统界面和系统应用不拦截也不记录，与轮询检测一致
+            BlockPolicy policy = PolicyEngine.getInstance(this).getPolicy();
+            if (policy.isExempt(packageName) || isSystemApp(packageName)) {
+                return;
+            }
             
-            if ("block_app".equals(action) && packageName != null) {
-                performBlockAction(packageName);
+            // 使用预编译的策略快照，避免每个事件重复读取和解析配置
+            if (policy.shouldBlock(packageName)) {
+                GuardLog.d(TAG, "Blocking app: {}", packageName);
+                performBlockAction(packageName, detectedAt, SystemClock.elapsedRealtimeNanos());
+            } else {
+                JournalRecorder.getInstance(this).record(packageName, DetectorRegistry.Source.ACCESSIBILITY,
+                        JournalRecord.Decision.ALLOWED, detectedAt, SystemClock.elapsedRealtimeNanos());
             }
+        } catch (Exception e) {
+            GuardLog.e(TAG, "Error handling window state change", e);
         }
-        
-        return START_STICKY;
     }
-
-    private void performBlockAction(String packageName) {
-        // 显示悬浮窗黑色全屏覆盖
-        showBlockingOverlay(packageName);
+    
+    private boolean isSystemApp(String packageName) {
+        return PackageMetadataIndex.getInstance(this).isSystemApp(packageName);
     }
     
-    private void showBlockingOverlay(String packageName) {
-        try {
-            // 启动悬浮窗服务显示覆盖层
-            Intent overlayIntent = new Intent(this, BlockOverlayService.class);
-            overlayIntent.putExtra("package_name", packageName);
-            startService(overlayIntent);
-        } catch (Exception e) {
-            Log.e(TAG, "Error showing blocking overlay", e);
-        }
+    private void performBlockAction(String packageName, long detectedAt, long decidedAt) {
+        // 由统一的拦截分发器显示悬浮窗黑色全屏覆盖
+        BlockDispatcher.getInstance(this).dispatch(packageName, DetectorRegistry.Source.ACCESSIBILITY,
+                detectedAt, decidedAt);
     }
 }
\ No newline at end of file
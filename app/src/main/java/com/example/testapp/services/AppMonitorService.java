@@ -7,56 +7,68 @@ import android.app.NotificationManager;
 import android.app.Service;
 import android.content.Context;
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.os.Build;
-import android.os.Handler;
 import android.os.IBinder;
-import android.os.Looper;
-import android.util.Log;
+import android.os.SystemClock;
 
 import androidx.annotation.Nullable;
 import androidx.core.app.NotificationCompat;
 
-import com.example.testapp.BlockOverlayActivity;
-import com.example.testapp.R;
+import com.example.testapp.catalog.PackageMetadataIndex;
+import com.example.testapp.core.detect.DetectorRegistry;
+import com.example.testapp.core.journal.JournalRecord;
+import com.example.testapp.core.policy.BlockPolicy;
+import com.example.testapp.core.policy.PolicyDelta;
+import com.example.testapp.journal.JournalRecorder;
+import com.example.testapp.policy.PolicyEngine;
+import com.example.testapp.usage.ScreenTimeTracker;
+import com.example.testapp.utils.GuardLog;
+import com.example.testapp.utils.GuardMetrics;
+import com.example.testapp.utils.PermissionManager;
 
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
 
-public class AppMonitorService extends Service {
+public class AppMonitorService extends Service
+        implements DetectorRegistry.Listener, PolicyEngine.Listener, ScreenTimeTracker.Listener {
     private static final String TAG = "AppMonitorService";
     private static final String CHANNEL_ID = "AppMonitorChannel";
     private static final int NOTIFICATION_ID = 1001;
-    private static final long CHECK_INTERVAL = 1000; // 1秒检查一次
 
-    private Timer timer;
-    private Handler handler;
-    private String currentForegroundApp;
-    private SharedPreferences prefs;
+    private MonitorScheduler scheduler;
+    private volatile String currentForegroundApp;
+    private PolicyEngine policyEngine;
+    private UsageEventsDetector usageEventsDetector;
+    private ScreenTimeTracker screenTimeTracker;
+    // 通知中当前显示的今日使用时间，只在变化时更新通知
+    private volatile String usageText;
 
     @Override
     public void onCreate() {
         super.onCreate();
         try {
-            handler = new Handler(Looper.getMainLooper());
-            prefs = getSharedPreferences("app_prefs", MODE_PRIVATE);
+            policyEngine = PolicyEngine.getInstance(this);
+            policyEngine.addListener(this);
+            PackageMetadataIndex.getInstance(this).loadAsync();
+            DetectorRegistry.getInstance().addListener(this);
+            screenTimeTracker = ScreenTimeTracker.getInstance(this);
+            screenTimeTracker.addListener(this);
+            DetectorRegistry.getInstance().markAlive(DetectorRegistry.Source.USAGE_POLLING);
             createNotificationChannel();
             startForeground(NOTIFICATION_ID, createNotification());
-            Log.d(TAG, "AppMonitorService created successfully");
+            GuardLog.i(TAG, "AppMonitorService created successfully");
         } catch (Exception e) {
-            Log.e(TAG, "Error in onCreate", e);
+            GuardLog.e(TAG, "Error in onCreate", e);
         }
     }
 
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
         try {
-            Log.d(TAG, "onStartCommand called");
+            GuardLog.d(TAG, "onStartCommand called");
             startMonitoring();
             return START_STICKY;
         } catch (Exception e) {
-            Log.e(TAG, "Error in onStartCommand", e);
+            GuardLog.e(TAG, "Error in onStartCommand", e);
             return START_NOT_STICKY;
         }
     }
@@ -68,29 +80,69 @@ public class AppMonitorService extends Service {
     }
 
     private void startMonitoring() {
-        if (timer != null) {
-            timer.cancel();
+        if (scheduler != null) {
+            scheduler.stop();
         }
 
-        timer = new Timer();
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                checkForegroundApp();
-            }
-        }, 0, CHECK_INTERVAL);
+        // 有使用情况访问权限时使用事件游标检测，否则退回进程轮询
+        if (new PermissionManager(this).hasUsageStatsPermission()) {
+            usageEventsDetector = new UsageEventsDetector(this);
+        } else {
+            usageEventsDetector = null;
+            GuardLog.w(TAG, "Usage stats permission missing, falling back to process polling");
+        }
+
+        scheduler = new MonitorScheduler(this, this::checkForegroundApp);
+        // 无障碍服务在线时由其负责检测，轮询只作为兜底
+        scheduler.setSuspended(!DetectorRegistry.getInstance().shouldPoll());
+        scheduler.start();
+    }
+
+    @Override
+    public void onPrimaryChanged(DetectorRegistry.Source primary) {
+        GuardLog.i(TAG, "Primary detector changed to: {}", primary);
+        MonitorScheduler currentScheduler = scheduler;
+        if (currentScheduler != null) {
+            currentScheduler.setSuspended(primary != DetectorRegistry.Source.USAGE_POLLING);
+        }
     }
 
-    private void checkForegroundApp() {
+    @Override
+    public void onPolicyChanged(BlockPolicy policy, PolicyDelta delta) {
+        // 每次判定都读取最新快照；若当前前台应用受影响，下次轮询重新判定，无需等待应用切换
+        String foregroundApp = currentForegroundApp;
+        if (foregroundApp != null && delta.affects(foregroundApp)) {
+            currentForegroundApp = null;
+        }
+        GuardMetrics.getInstance().recordPolicyApplied(delta);
+    }
+
+    @Override
+    public void onUsageUpdated() {
+        String text = ScreenTimeTracker.formatDuration(screenTimeTracker.getTodayMillis());
+        if (text.equals(usageText)) {
+            return;
+        }
+        usageText = text;
+        NotificationManager manager = (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
+        if (manager != null) {
+            manager.notify(NOTIFICATION_ID, createNotification());
+        }
+    }
+
+    private boolean checkForegroundApp() {
         try {
             String foregroundApp = getForegroundApp();
             if (foregroundApp != null && !foregroundApp.equals(currentForegroundApp)) {
+                long detectedAt = SystemClock.elapsedRealtimeNanos();
                 currentForegroundApp = foregroundApp;
-                handleAppChange(foregroundApp);
+                handleAppChange(foregroundApp, detectedAt);
+                return true;
             }
         } catch (Exception e) {
-            Log.e(TAG, "Error checking foreground app", e);
+            GuardLog.e(TAG, "Error checking foreground app", e);
         }
+        return false;
     }
 
     private String getForegroundApp() {
@@ -102,6 +154,10 @@ public class AppMonitorService extends Service {
     }
 
     private String getForegroundAppLollipop() {
+        if (usageEventsDetector != null) {
+            return usageEventsDetector.poll();
+        }
+
         try {
             ActivityManager.RunningAppProcessInfo processInfo = new ActivityManager.RunningAppProcessInfo();
             ActivityManager activityManager = (ActivityManager) getSystemService(Context.ACTIVITY_SERVICE);
@@ -113,7 +169,7 @@ public class AppMonitorService extends Service {
                 }
             }
         } catch (Exception e) {
-            Log.e(TAG, "Error getting foreground app (Lollipop+)", e);
+            GuardLog.e(TAG, "Error getting foreground app (Lollipop+)", e);
         }
         return null;
     }
@@ -126,79 +182,33 @@ public class AppMonitorService extends Service {
                 return tasks.get(0).topActivity.getPackageName();
             }
         } catch (Exception e) {
-            Log.e(TAG, "Error getting foreground app (Pre-Lollipop)", e);
+            GuardLog.e(TAG, "Error getting foreground app (Pre-Lollipop)", e);
         }
         return null;
     }
 
-    private void handleAppChange(String packageName) {
-        Log.d(TAG, "Foreground app changed to: " + packageName);
+    private void handleAppChange(String packageName, long detectedAt) {
+        GuardLog.d(TAG, "Foreground app changed to: {}", packageName);
 
-        // 跳过本应用
-        if (packageName.equals(getPackageName())) {
+        // 自身、系统界面和系统应用不拦截也不记录，与无障碍检测一致
+        BlockPolicy policy = policyEngine.getPolicy();
+        if (policy.isExempt(packageName) || PackageMetadataIndex.getInstance(this).isSystemApp(packageName)) {
             return;
         }
 
-        // 检查保护是否启用
-        boolean protectionEnabled = prefs.getBoolean("protection_enabled", true);
-        if (!protectionEnabled) {
-            return;
-        }
-
-        // 获取当前模式
-        boolean isBlacklistMode = prefs.getBoolean("is_blacklist_mode", true);
-        String appsKey = isBlacklistMode ? "blacklist_apps" : "whitelist_apps";
-        String appsString = prefs.getString(appsKey, "");
-
-        if (appsString.isEmpty()) {
-            return;
-        }
-
-        String[] apps = appsString.split(",");
-        boolean shouldBlock = false;
-
-        if (isBlacklistMode) {
-            // 黑名单模式：精确匹配包名
-            for (String app : apps) {
-                if (app.trim().equals(packageName)) {
-                    shouldBlock = true;
-                    break;
-                }
-            }
+        // 使用预编译的策略快照判定
+        if (policy.shouldBlock(packageName)) {
+            GuardLog.d(TAG, "Blocking app: {}", packageName);
+            blockApp(packageName, detectedAt, SystemClock.elapsedRealtimeNanos());
         } else {
-            // 白名单模式：不在白名单中的应用需要拦截
-            if (!appsString.isEmpty()) {
-                shouldBlock = true; // 默认拦截
-                for (String app : apps) {
-                    if (app.trim().equals(packageName)) {
-                        shouldBlock = false; // 在白名单中，不拦截
-                        break;
-                    }
-                }
-            }
-        }
-
-        if (shouldBlock) {
-            Log.d(TAG, "Blocking app: " + packageName);
-            blockApp(packageName);
+            JournalRecorder.getInstance(this).record(packageName, DetectorRegistry.Source.USAGE_POLLING,
+                    JournalRecord.Decision.ALLOWED, detectedAt, SystemClock.elapsedRealtimeNanos());
         }
     }
 
-    private void blockApp(String packageName) {
-        handler.post(() -> {
-            // 显示拦截界面
-            Intent intent = new Intent(this, BlockOverlayActivity.class);
-            intent.putExtra("title", getString(R.string.app_blocked));
-            intent.putExtra("message", "应用 " + packageName + " " + getString(R.string.app_blocked_message));
-            intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
-            startActivity(intent);
-
-            // 通知无障碍服务返回桌面
-            Intent serviceIntent = new Intent(this, AppBlockAccessibilityService.class);
-            serviceIntent.putExtra("action", "block_app");
-            serviceIntent.putExtra("package_name", packageName);
-            startService(serviceIntent);
-        });
+    private void blockApp(String packageName, long detectedAt, long decidedAt) {
+        BlockDispatcher.getInstance(this).dispatch(packageName, DetectorRegistry.Source.USAGE_POLLING,
+                detectedAt, decidedAt);
     }
 
     private void createNotificationChannel() {
@@ -227,14 +237,15 @@ public class AppMonitorService extends Service {
                 iconResource = android.R.drawable.ic_dialog_info;
             }
             
+            String contentText = usageText != null ? "正在监控前台应用 · 今日使用 " + usageText : "正在监控前台应用";
             return new NotificationCompat.Builder(this, CHANNEL_ID)
                     .setContentTitle("应用管理器")
-                    .setContentText("正在监控前台应用")
+                    .setContentText(contentText)
                     .setSmallIcon(iconResource)
                     .setPriority(NotificationCompat.PRIORITY_LOW)
                     .build();
         } catch (Exception e) {
-            Log.e(TAG, "Error creating notification", e);
+            GuardLog.e(TAG, "Error creating notification", e);
             // 创建一个简单的通知作为备用
             return new NotificationCompat.Builder(this, CHANNEL_ID)
                     .setContentTitle("应用管理器")
@@ -248,8 +259,16 @@ public class AppMonitorService extends Service {
     @Override
     public void onDestroy() {
         super.onDestroy();
-        if (timer != null) {
-            timer.cancel();
+        DetectorRegistry.getInstance().removeListener(this);
+        if (screenTimeTracker != null) {
+            screenTimeTracker.removeListener(this);
+        }
+        if (policyEngine != null) {
+            policyEngine.removeListener(this);
+        }
+        DetectorRegistry.getInstance().markDead(DetectorRegistry.Source.USAGE_POLLING);
+        if (scheduler != null) {
+            scheduler.stop();
         }
     }
 }
\ No newline at end of file
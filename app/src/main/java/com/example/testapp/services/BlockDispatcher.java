@@ -0,0 +1,76 @@
+package com.example.testapp.services;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.SystemClock;
+
+import com.example.testapp.core.detect.DetectorRegistry;
+import com.example.testapp.core.dispatch.BlockCoalescer;
+import com.example.testapp.core.journal.JournalRecord;
+import com.example.testapp.journal.JournalRecorder;
+import com.example.testapp.utils.GuardLog;
+import com.example.testapp.utils.GuardMetrics;
+
+/**
+ * 进程内唯一的拦截入口。各检测来源的拦截请求在这里按包名合并，
+ * 同一应用在窗口期内只显示一次拦截覆盖层，实际执行的拦截写入拦截日志。
+ */
+public class BlockDispatcher {
+    private static final String TAG = "BlockDispatcher";
+    // 同一应用的重复拦截请求在该窗口内合并
+    private static final long COALESCE_WINDOW_MS = 2000;
+
+    private static BlockDispatcher instance;
+
+    private final Context context;
+    private final BlockCoalescer coalescer = new BlockCoalescer(COALESCE_WINDOW_MS);
+
+    private BlockDispatcher(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    public static synchronized BlockDispatcher getInstance(Context context) {
+        if (instance == null) {
+            instance = new BlockDispatcher(context);
+        }
+        return instance;
+    }
+
+    /**
+     * 请求拦截指定应用，返回是否真正执行了拦截（重复请求返回 false）。可在任意线程调用。
+     * detectedAt 与 decidedAt 为 {@code SystemClock.elapsedRealtimeNanos()}，用于统计拦截延迟。
+     */
+    public boolean dispatch(String packageName, DetectorRegistry.Source source, long detectedAt, long decidedAt) {
+        if (!coalescer.tryAcquire(packageName, SystemClock.elapsedRealtime())) {
+            GuardMetrics.getInstance().recordBlockSuppressed();
+            return false;
+        }
+
+        GuardMetrics.getInstance().recordBlockDispatched();
+        GuardLog.d(TAG, "Blocking app: {} ({})", packageName, source);
+        try {
+            Intent overlayIntent = new Intent(context, BlockOverlayService.class);
+            overlayIntent.putExtra("package_name", packageName);
+            overlayIntent.putExtra("detected_at", detectedAt);
+            overlayIntent.putExtra("decided_at", decidedAt);
+            overlayIntent.putExtra("dispatched_at", SystemClock.elapsedRealtimeNanos());
+            context.startService(overlayIntent);
+            JournalRecorder.getInstance(context).record(packageName, source, JournalRecord.Decision.BLOCKED,
+                    detectedAt, decidedAt);
+            return true;
+        } catch (Exception e) {
+            GuardLog.e(TAG, "Error showing blocking overlay", e);
+            coalescer.release(packageName);
+            return false;
+        }
+    }
+
+    /**
+     * 拦截界面关闭后调用，使同一应用再次打开时能立即被拦截。
+     */
+    public void release(String packageName) {
+        if (packageName != null) {
+            coalescer.release(packageName);
+        }
+    }
+}
@@ -1,117 +1,200 @@
 package com.example.testapp.services;
 
 import android.app.Service;
-import android.content.Context;
 import android.content.Intent;
 import android.graphics.PixelFormat;
 import android.os.Build;
 import android.os.IBinder;
-import android.util.Log;
+import android.os.SystemClock;
 import android.view.Gravity;
-import android.view.LayoutInflater;
-import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewTreeObserver;
 import android.view.WindowManager;
 import android.widget.Button;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
 import android.widget.TextView;
 
+import com.example.testapp.catalog.PackageMetadataIndex;
+import com.example.testapp.utils.GuardLog;
+import com.example.testapp.utils.GuardMetrics;
+
 public class BlockOverlayService extends Service {
     private static final String TAG = "BlockOverlayService";
     
     private WindowManager windowManager;
+    private WindowManager.LayoutParams layoutParams;
+    // 覆盖层在服务生命周期内只创建一次，隐藏时保持挂载
     private View overlayView;
+    private TextView appNameText;
+    private boolean attached;
+    private boolean showing;
     private String blockedPackageName;
+    // 当前拦截的时间点，用于统计从检测到覆盖层可见的延迟
+    private long detectedAt;
+    private long decidedAt;
+    private long dispatchedAt;
 
     @Override
     public void onCreate() {
         super.onCreate();
         windowManager = (WindowManager) getSystemService(WINDOW_SERVICE);
+        layoutParams = createLayoutParams();
+        overlayView = createOverlayView();
+        ensureAttached();
     }
 
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
         if (intent != null) {
             blockedPackageName = intent.getStringExtra("package_name");
+            detectedAt = intent.getLongExtra("detected_at", 0);
+            decidedAt = intent.getLongExtra("decided_at", 0);
+            dispatchedAt = intent.getLongExtra("dispatched_at", 0);
             showOverlay();
         }
         return START_STICKY;
     }
 
+    private WindowManager.LayoutParams createLayoutParams() {
+        // 隐藏状态下不接收触摸，事件穿透到下层窗口
+        return new WindowManager.LayoutParams(
+                WindowManager.LayoutParams.MATCH_PARENT,
+                WindowManager.LayoutParams.MATCH_PARENT,
+                Build.VERSION.SDK_INT >= Build.VERSION_CODES.O ?
+                        WindowManager.LayoutParams.TYPE_APPLICATION_OVERLAY :
+                        WindowManager.LayoutParams.TYPE_PHONE,
+                WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE |
+                WindowManager.LayoutParams.FLAG_NOT_TOUCH_MODAL |
+                WindowManager.LayoutParams.FLAG_NOT_TOUCHABLE |
+                WindowManager.LayoutParams.FLAG_FULLSCREEN |
+                WindowManager.LayoutParams.FLAG_LAYOUT_IN_SCREEN,
+                PixelFormat.TRANSLUCENT
+        );
+    }
+
+    private View createOverlayView() {
+        // 创建内容布局
+        LinearLayout contentLayout = new LinearLayout(this);
+        contentLayout.setOrientation(LinearLayout.VERTICAL);
+        contentLayout.setGravity(Gravity.CENTER);
+        contentLayout.setPadding(50, 50, 50, 50);
+        
+        // 添加提示文本
+        TextView messageText = new TextView(this);
+        messageText.setText("应用已被拦截");
+        messageText.setTextSize(24);
+        messageText.setTextColor(0xFFFFFFFF);
+        messageText.setGravity(Gravity.CENTER);
+        contentLayout.addView(messageText);
+        
+        // 应用名称，显示时再填充
+        appNameText = new TextView(this);
+        appNameText.setTextSize(18);
+        appNameText.setTextColor(0xFFCCCCCC);
+        appNameText.setGravity(Gravity.CENTER);
+        appNameText.setPadding(0, 20, 0, 30);
+        contentLayout.addView(appNameText);
+        
+        // 添加关闭按钮
+        Button closeButton = new Button(this);
+        closeButton.setText("确定");
+        closeButton.setOnClickListener(v -> hideOverlay());
+        contentLayout.addView(closeButton);
+        
+        // 黑色全屏背景
+        FrameLayout frameLayout = new FrameLayout(this);
+        frameLayout.setBackgroundColor(0xFF000000);
+        frameLayout.addView(contentLayout, new FrameLayout.LayoutParams(
+                FrameLayout.LayoutParams.MATCH_PARENT,
+                FrameLayout.LayoutParams.MATCH_PARENT));
+        frameLayout.setVisibility(View.GONE);
+        return frameLayout;
+    }
+
+    private boolean ensureAttached() {
+        if (attached) {
+            return true;
+        }
+        try {
+            windowManager.addView(overlayView, layoutParams);
+            attached = true;
+        } catch (Exception e) {
+            // 通常是尚未授予悬浮窗权限，下次显示时重试
+            GuardLog.e(TAG, "Error attaching overlay", e);
+        }
+        return attached;
+    }
+
     private void showOverlay() {
         try {
             // 先返回主屏幕
             goBackToHome();
             
-            // 创建覆盖层布局参数
-            WindowManager.LayoutParams params = new WindowManager.LayoutParams(
-                    WindowManager.LayoutParams.MATCH_PARENT,
-                    WindowManager.LayoutParams.MATCH_PARENT,
-                    Build.VERSION.SDK_INT >= Build.VERSION_CODES.O ?
-                            WindowManager.LayoutParams.TYPE_APPLICATION_OVERLAY :
-                            WindowManager.LayoutParams.TYPE_PHONE,
-                    WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE |
-                    WindowManager.LayoutParams.FLAG_NOT_TOUCH_MODAL |
-                    WindowManager.LayoutParams.FLAG_FULLSCREEN |
-                    WindowManager.LayoutParams.FLAG_LAYOUT_IN_SCREEN,
-                    PixelFormat.TRANSLUCENT
-            );
-
-            // 创建覆盖层视图
-            overlayView = LayoutInflater.from(this).inflate(android.R.layout.activity_list_item, null);
-            
-            // 设置黑色背景
-            overlayView.setBackgroundColor(0xFF000000);
-            
-            // 创建内容布局
-            android.widget.LinearLayout contentLayout = new android.widget.LinearLayout(this);
-            contentLayout.setOrientation(android.widget.LinearLayout.VERTICAL);
-            contentLayout.setGravity(Gravity.CENTER);
-            contentLayout.setPadding(50, 50, 50, 50);
-            
-            // 添加提示文本
-            TextView messageText = new TextView(this);
-            messageText.setText("应用已被拦截");
-            messageText.setTextSize(24);
-            messageText.setTextColor(0xFFFFFFFF);
-            messageText.setGravity(Gravity.CENTER);
-            contentLayout.addView(messageText);
-            
-            // 添加应用名称
-            TextView appText = new TextView(this);
-            try {
-                String appName = getPackageManager().getApplicationInfo(blockedPackageName, 0).loadLabel(getPackageManager()).toString();
-                appText.setText(appName);
-            } catch (Exception e) {
-                appText.setText(blockedPackageName);
+            if (!ensureAttached()) {
+                stopSelf();
+                return;
             }
-            appText.setTextSize(18);
-            appText.setTextColor(0xFFCCCCCC);
-            appText.setGravity(Gravity.CENTER);
-            appText.setPadding(0, 20, 0, 30);
-            contentLayout.addView(appText);
             
-            // 添加关闭按钮
-            Button closeButton = new Button(this);
-            closeButton.setText("确定");
-            closeButton.setOnClickListener(v -> hideOverlay());
-            contentLayout.addView(closeButton);
-            
-            // 将内容布局添加到覆盖层
-            android.widget.FrameLayout frameLayout = new android.widget.FrameLayout(this);
-            frameLayout.addView(contentLayout);
-            
-            overlayView = frameLayout;
-            
-            // 显示覆盖层
-            windowManager.addView(overlayView, params);
+            showAppName(blockedPackageName);
+            if (!showing) {
+                overlayView.getViewTreeObserver().addOnPreDrawListener(visibleListener);
+                overlayView.setVisibility(View.VISIBLE);
+                setTouchable(true);
+                showing = true;
+            } else {
+                // 覆盖层已在显示，内容替换即刻生效
+                recordLatency();
+            }
             
-            Log.d(TAG, "Overlay shown for package: " + blockedPackageName);
+            GuardLog.d(TAG, "Overlay shown for package: {}", blockedPackageName);
             
         } catch (Exception e) {
-            Log.e(TAG, "Error showing overlay", e);
+            GuardLog.e(TAG, "Error showing overlay", e);
             stopSelf();
         }
     }
+
+    private final ViewTreeObserver.OnPreDrawListener visibleListener = new ViewTreeObserver.OnPreDrawListener() {
+        @Override
+        public boolean onPreDraw() {
+            overlayView.getViewTreeObserver().removeOnPreDrawListener(this);
+            recordLatency();
+            return true;
+        }
+    };
+
+    private void recordLatency() {
+        if (detectedAt == 0 || decidedAt == 0 || dispatchedAt == 0) {
+            return;
+        }
+        GuardMetrics.getInstance().recordBlockLatency(detectedAt, decidedAt, dispatchedAt,
+                SystemClock.elapsedRealtimeNanos());
+        detectedAt = 0;
+    }
+
+    private void showAppName(String packageName) {
+        // 名称未缓存时先显示包名，在后台加载后再替换，不在主线程调用 PackageManager
+        PackageMetadataIndex index = PackageMetadataIndex.getInstance(this);
+        String label = index.getCachedLabel(packageName);
+        appNameText.setText(label != null ? label : packageName);
+        if (label == null && packageName != null) {
+            index.loadLabelAsync(packageName, (loadedPackage, loadedLabel) -> {
+                if (loadedPackage.equals(blockedPackageName)) {
+                    appNameText.setText(loadedLabel);
+                }
+            });
+        }
+    }
+
+    private void setTouchable(boolean touchable) {
+        if (touchable) {
+            layoutParams.flags &= ~WindowManager.LayoutParams.FLAG_NOT_TOUCHABLE;
+        } else {
+            layoutParams.flags |= WindowManager.LayoutParams.FLAG_NOT_TOUCHABLE;
+        }
+        windowManager.updateViewLayout(overlayView, layoutParams);
+    }
     
     private void goBackToHome() {
         try {
@@ -121,19 +204,21 @@ public class BlockOverlayService extends Service {
             homeIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
             startActivity(homeIntent);
         } catch (Exception e) {
-            Log.e(TAG, "Error returning to home", e);
+            GuardLog.e(TAG, "Error returning to home", e);
         }
     }
 
     private void hideOverlay() {
         try {
-            if (overlayView != null && windowManager != null) {
-                windowManager.removeView(overlayView);
-                overlayView = null;
+            if (showing && attached) {
+                overlayView.getViewTreeObserver().removeOnPreDrawListener(visibleListener);
+                overlayView.setVisibility(View.GONE);
+                setTouchable(false);
             }
-            stopSelf();
+            showing = false;
+            BlockDispatcher.getInstance(this).release(blockedPackageName);
         } catch (Exception e) {
-            Log.e(TAG, "Error hiding overlay", e);
+            GuardLog.e(TAG, "Error hiding overlay", e);
         }
     }
 
@@ -141,10 +226,18 @@ public class BlockOverlayService extends Service {
     public void onDestroy() {
         super.onDestroy();
         hideOverlay();
+        try {
+            if (attached) {
+                windowManager.removeView(overlayView);
+                attached = false;
+            }
+        } catch (Exception e) {
+            GuardLog.e(TAG, "Error removing overlay", e);
+        }
     }
 
     @Override
     public IBinder onBind(Intent intent) {
         return null;
     }
-}
\ No newline at end of file
+}
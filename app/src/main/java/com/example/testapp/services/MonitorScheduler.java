@@ -0,0 +1,150 @@
+package com.example.testapp.services;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.PowerManager;
+
+import com.example.testapp.core.schedule.AdaptivePollPolicy;
+import com.example.testapp.utils.GuardLog;
+import com.example.testapp.utils.GuardMetrics;
+
+/**
+ * 前台检测的自适应调度器，替代固定 1 秒的 Timer。
+ * 无变化时指数退避，灭屏后完全停止，亮屏、解锁或检测到切换后立即收紧间隔。
+ * 所有回调都运行在独立的后台线程上。
+ */
+public class MonitorScheduler {
+    private static final String TAG = "MonitorScheduler";
+    private static final long MIN_INTERVAL = 500;
+    private static final long MAX_INTERVAL = 5000;
+
+    public interface Task {
+        /**
+         * 执行一次检测，返回前台应用是否发生变化。
+         */
+        boolean run();
+    }
+
+    private final Context context;
+    private final Task task;
+    private final AdaptivePollPolicy pollPolicy = new AdaptivePollPolicy(MIN_INTERVAL, MAX_INTERVAL);
+    private final Runnable tickRunnable = this::tick;
+    private HandlerThread thread;
+    private Handler handler;
+    private boolean screenOn;
+    // 主检测来源可用时暂停轮询，可在任意线程设置
+    private volatile boolean suspended;
+
+    private final BroadcastReceiver screenReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            String action = intent.getAction();
+            if (Intent.ACTION_SCREEN_OFF.equals(action)) {
+                screenOn = false;
+                pause();
+            } else if (Intent.ACTION_SCREEN_ON.equals(action) || Intent.ACTION_USER_PRESENT.equals(action)) {
+                screenOn = true;
+                if (!suspended) {
+                    resumeNow();
+                }
+            }
+        }
+    };
+
+    public MonitorScheduler(Context context, Task task) {
+        this.context = context.getApplicationContext();
+        this.task = task;
+    }
+
+    public void start() {
+        if (thread != null) {
+            return;
+        }
+        thread = new HandlerThread("AppMonitor");
+        thread.start();
+        handler = new Handler(thread.getLooper());
+
+        PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        screenOn = powerManager == null || powerManager.isInteractive();
+
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_SCREEN_OFF);
+        filter.addAction(Intent.ACTION_SCREEN_ON);
+        filter.addAction(Intent.ACTION_USER_PRESENT);
+        // 广播直接投递到调度线程，状态只在该线程上修改
+        context.registerReceiver(screenReceiver, filter, null, handler);
+
+        if (screenOn && !suspended) {
+            resumeNow();
+        }
+    }
+
+    /**
+     * 暂停或恢复轮询。可在 {@link #start()} 之前调用以设定初始状态。
+     */
+    public void setSuspended(boolean suspended) {
+        this.suspended = suspended;
+        Handler currentHandler = handler;
+        if (currentHandler == null) {
+            return;
+        }
+        currentHandler.post(() -> {
+            if (handler == null) {
+                return;
+            }
+            if (this.suspended) {
+                pause();
+            } else if (screenOn) {
+                resumeNow();
+            }
+        });
+    }
+
+    public void stop() {
+        if (thread == null) {
+            return;
+        }
+        try {
+            context.unregisterReceiver(screenReceiver);
+        } catch (Exception e) {
+            GuardLog.e(TAG, "Error unregistering screen receiver", e);
+        }
+        handler.removeCallbacks(tickRunnable);
+        thread.quitSafely();
+        thread = null;
+        handler = null;
+        GuardMetrics.getInstance().setPollingActive(false);
+    }
+
+    private void pause() {
+        handler.removeCallbacks(tickRunnable);
+        GuardMetrics.getInstance().setPollingActive(false);
+        GuardLog.d(TAG, "Polling paused");
+    }
+
+    private void resumeNow() {
+        pollPolicy.boost();
+        handler.removeCallbacks(tickRunnable);
+        handler.post(tickRunnable);
+        GuardMetrics.getInstance().setPollingActive(true);
+    }
+
+    private void tick() {
+        boolean changed = false;
+        try {
+            changed = task.run();
+        } catch (Exception e) {
+            GuardLog.e(TAG, "Error running monitor task", e);
+        }
+
+        long nextInterval = pollPolicy.next(changed);
+        GuardMetrics.getInstance().recordPoll(nextInterval);
+        if (screenOn && !suspended && handler != null) {
+            handler.postDelayed(tickRunnable, nextInterval);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.testapp.services;
+
+import android.app.usage.UsageEvents;
+import android.app.usage.UsageStatsManager;
+import android.content.Context;
+
+import com.example.testapp.utils.GuardLog;
+
+/**
+ * 基于 UsageStatsManager 事件流的前台应用检测。
+ * 维护一个增量游标，每次只读取上次之后的新事件，返回的是包名而不是进程名。
+ * 需要使用情况访问权限；非线程安全，每个实例只能在一个线程中调用。
+ */
+public class UsageEventsDetector {
+    private static final String TAG = "UsageEventsDetector";
+    // 首次读取时回看的时间窗口
+    private static final long INITIAL_LOOKBACK = 60 * 1000;
+    // 事件写入存在延迟，游标保留一小段重叠窗口，重复事件按时间戳去重
+    private static final long CURSOR_OVERLAP = 2000;
+
+    public interface Callback {
+        /** 按时间顺序回调每次前台切换 */
+        void onForeground(String packageName, long timestamp);
+    }
+
+    private final UsageStatsManager usageStatsManager;
+    // 复用同一个事件对象，避免每条事件分配
+    private final UsageEvents.Event event = new UsageEvents.Event();
+    private long cursor;
+    private long lastEventTime;
+    private String foregroundPackage;
+
+    public UsageEventsDetector(Context context) {
+        usageStatsManager = (UsageStatsManager) context.getSystemService(Context.USAGE_STATS_SERVICE);
+    }
+
+    /**
+     * 读取游标之后的新事件，返回当前前台应用包名；尚无任何前台事件时返回 null。
+     */
+    public String poll() {
+        return poll(null);
+    }
+
+    /**
+     * 同 {@link #poll()}，并把读到的每次前台切换及其时间戳交给 callback，可为 null。
+     */
+    public String poll(Callback callback) {
+        if (usageStatsManager == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        if (cursor > now || lastEventTime > now) {
+            // 系统时间被调回，游标落在未来，回到首次读取的状态
+            cursor = 0;
+            lastEventTime = 0;
+        }
+        long begin = cursor == 0 ? now - INITIAL_LOOKBACK : cursor;
+        try {
+            UsageEvents events = usageStatsManager.queryEvents(begin, now);
+            while (events != null && events.hasNextEvent()) {
+                events.getNextEvent(event);
+                long timestamp = event.getTimeStamp();
+                if (timestamp <= lastEventTime) {
+                    continue;
+                }
+                // MOVE_TO_FOREGROUND 与 Android 10 的 ACTIVITY_RESUMED 取值相同
+                if (event.getEventType() == UsageEvents.Event.MOVE_TO_FOREGROUND) {
+                    lastEventTime = timestamp;
+                    foregroundPackage = event.getPackageName();
+                    if (callback != null) {
+                        callback.onForeground(foregroundPackage, timestamp);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            GuardLog.e(TAG, "Error querying usage events", e);
+        }
+
+        cursor = Math.max(lastEventTime + 1, now - CURSOR_OVERLAP);
+        return foregroundPackage;
+    }
+}
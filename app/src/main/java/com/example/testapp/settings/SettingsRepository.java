@@ -0,0 +1,183 @@
+package com.example.testapp.settings;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+
+import com.example.testapp.core.settings.Setting;
+import com.example.testapp.core.settings.SettingsBatch;
+import com.example.testapp.utils.GuardLog;
+import com.example.testapp.utils.SecureStorage;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 开关类设置的读写入口。
+ * 设置加密保存在独立的 secure_settings 中，启动时解密一次后只读内存；修改立即在内存生效并通知订阅者，
+ * 写盘则在短时间窗口内合并，连续切换多个开关只产生一次磁盘写入。
+ * 密钥库不可用时退回明文的 settings_prefs。
+ */
+public final class SettingsRepository {
+    private static final String TAG = "SettingsRepository";
+    public static final String PREFS_NAME = "secure_settings";
+    private static final String PLAIN_PREFS_NAME = "settings_prefs";
+    private static final String LEGACY_PREFS_NAME = "app_prefs";
+    private static final String KEY_SCHEMA_VERSION = "schema_version";
+    private static final int SCHEMA_VERSION = 1;
+    private static final long BATCH_WINDOW_MS = 300;
+
+    public interface Listener {
+        /** 在修改设置的线程上同步回调 */
+        void onSettingChanged(Setting setting, boolean value);
+    }
+
+    public interface ReadyCallback {
+        /** 在主线程回调 */
+        void onSettingsReady(SettingsRepository settings);
+    }
+
+    private static SettingsRepository instance;
+
+    private final SharedPreferences prefs;
+    private final boolean[] values = new boolean[Setting.values().length];
+    private final SettingsBatch batch = new SettingsBatch();
+    private final Handler writer;
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Runnable flushTask = this::flush;
+
+    private SettingsRepository(Context context) {
+        Context appContext = context.getApplicationContext();
+        SharedPreferences plain = appContext.getSharedPreferences(PLAIN_PREFS_NAME, Context.MODE_PRIVATE);
+        prefs = open(appContext, plain);
+        if (!prefs.contains(KEY_SCHEMA_VERSION)) {
+            // 旧版明文设置优先，其次是更早的 app_prefs
+            migrate(plain.contains(KEY_SCHEMA_VERSION) ? plain
+                    : appContext.getSharedPreferences(LEGACY_PREFS_NAME, Context.MODE_PRIVATE));
+        }
+        for (Setting setting : Setting.values()) {
+            values[setting.ordinal()] = prefs.getBoolean(setting.getKey(), setting.getDefaultValue());
+        }
+        HandlerThread thread = new HandlerThread("SettingsWriter", Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        writer = new Handler(thread.getLooper());
+    }
+
+    public static synchronized SettingsRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new SettingsRepository(context);
+        }
+        return instance;
+    }
+
+    /**
+     * 首次初始化涉及密钥库和解密，在后台线程完成后于主线程回调，供界面在 onCreate 中使用。
+     */
+    public static void getInstanceAsync(Context context, ReadyCallback callback) {
+        Context appContext = context.getApplicationContext();
+        Handler main = new Handler(Looper.getMainLooper());
+        SettingsRepository current;
+        synchronized (SettingsRepository.class) {
+            current = instance;
+        }
+        if (current != null) {
+            main.post(() -> callback.onSettingsReady(current));
+            return;
+        }
+        new Thread(() -> {
+            SettingsRepository repository = getInstance(appContext);
+            main.post(() -> callback.onSettingsReady(repository));
+        }, "SettingsLoader").start();
+    }
+
+    public synchronized boolean get(Setting setting) {
+        return values[setting.ordinal()];
+    }
+
+    public void set(Setting setting, boolean value) {
+        synchronized (this) {
+            if (values[setting.ordinal()] == value) {
+                return;
+            }
+            values[setting.ordinal()] = value;
+            if (batch.put(setting, value)) {
+                writer.postDelayed(flushTask, BATCH_WINDOW_MS);
+            }
+        }
+        for (Listener listener : listeners) {
+            listener.onSettingChanged(setting, value);
+        }
+    }
+
+    /**
+     * 全部恢复为默认值，与其他修改一样合并写盘。
+     */
+    public void resetAll() {
+        for (Setting setting : Setting.values()) {
+            set(setting, setting.getDefaultValue());
+        }
+    }
+
+    /**
+     * 立即写入尚未落盘的修改，例如界面进入后台时。
+     */
+    public void flushNow() {
+        writer.removeCallbacks(flushTask);
+        writer.post(flushTask);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void flush() {
+        Map<Setting, Boolean> pending = batch.drain();
+        if (pending.isEmpty()) {
+            return;
+        }
+        SharedPreferences.Editor editor = prefs.edit();
+        for (Map.Entry<Setting, Boolean> entry : pending.entrySet()) {
+            editor.putBoolean(entry.getKey().getKey(), entry.getValue());
+        }
+        // 已在后台线程，同步提交以便得知结果
+        if (!editor.commit()) {
+            GuardLog.e(TAG, "Error writing settings");
+        }
+        GuardLog.d(TAG, "Flushed {} settings in one write", pending.size());
+    }
+
+    private static SharedPreferences open(Context context, SharedPreferences fallback) {
+        try {
+            return SecureStorage.prefs(context, PREFS_NAME);
+        } catch (GeneralSecurityException | IOException e) {
+            GuardLog.e(TAG, "Keystore unavailable, settings will be stored in plaintext", e);
+            return fallback;
+        }
+    }
+
+    private void migrate(SharedPreferences legacy) {
+        SharedPreferences.Editor editor = prefs.edit();
+        SharedPreferences.Editor legacyEditor = legacy.edit();
+        for (Setting setting : Setting.values()) {
+            if (legacy.contains(setting.getKey())) {
+                editor.putBoolean(setting.getKey(), legacy.getBoolean(setting.getKey(), setting.getDefaultValue()));
+                legacyEditor.remove(setting.getKey());
+            }
+        }
+        editor.putInt(KEY_SCHEMA_VERSION, SCHEMA_VERSION);
+        legacyEditor.remove(KEY_SCHEMA_VERSION);
+        // 新文件写入成功后才移除旧键
+        if (editor.commit()) {
+            legacyEditor.apply();
+        }
+    }
+}
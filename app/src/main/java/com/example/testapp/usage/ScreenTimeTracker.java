@@ -0,0 +1,275 @@
+package com.example.testapp.usage;
+
+import android.app.KeyguardManager;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.PowerManager;
+import android.os.Process;
+
+import com.example.testapp.core.settings.Setting;
+import com.example.testapp.core.usage.ForegroundAccounting;
+import com.example.testapp.core.usage.UsageLog;
+import com.example.testapp.services.UsageEventsDetector;
+import com.example.testapp.settings.SettingsRepository;
+import com.example.testapp.utils.GuardLog;
+import com.example.testapp.utils.PermissionManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 各应用的前台使用时间，默认关闭。开启且亮屏时每分钟从使用情况事件流读取一次前台切换，
+ * 按事件自身的时间戳计入，不依赖拦截检测的事件订阅范围；熄屏或关闭时停止计时和打点。
+ * 统计由 {@link ForegroundAccounting} 完成，每个计入的区间追加到 usage.log。
+ * 设置和日志在统计线程加载，查询为常数时间，可在主线程调用。
+ */
+public final class ScreenTimeTracker implements SettingsRepository.Listener {
+    private static final String TAG = "ScreenTimeTracker";
+    private static final String FILE_NAME = "usage.log";
+    private static final long CHECKPOINT_INTERVAL_MS = ForegroundAccounting.MINUTE;
+    // 打点间隔的数倍，进程被冻结等情况下不会把长时间空白计入前台
+    private static final long MAX_INTERVAL_MS = 5 * ForegroundAccounting.MINUTE;
+    private static final long RETENTION_MS = 28 * ForegroundAccounting.DAY;
+    private static final long COMPACT_THRESHOLD_BYTES = 512 * 1024;
+
+    public interface Listener {
+        /** 每次打点后在统计线程回调 */
+        void onUsageUpdated();
+    }
+
+    private static ScreenTimeTracker instance;
+
+    private final Context context;
+    private final File file;
+    private final Handler worker;
+    private final ForegroundAccounting accounting;
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Runnable checkpointTask = this::checkpoint;
+    private final UsageEventsDetector.Callback feed = this::onForeground;
+    // 以下只在统计线程访问
+    private SettingsRepository settings;
+    private UsageLog log;
+    private UsageEventsDetector detector;
+    private boolean screenOn;
+    private boolean tracking;
+    // 本次开始计时的时间，更早的事件（关闭或熄屏期间）从这里开始计入
+    private long trackingSince;
+
+    private ScreenTimeTracker(Context context) {
+        this.context = context.getApplicationContext();
+        file = new File(this.context.getFilesDir(), FILE_NAME);
+        accounting = new ForegroundAccounting(TimeZone.getDefault(), MAX_INTERVAL_MS);
+        HandlerThread thread = new HandlerThread("ScreenTime", Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        worker = new Handler(thread.getLooper());
+        worker.post(this::open);
+
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_SCREEN_OFF);
+        filter.addAction(Intent.ACTION_SCREEN_ON);
+        filter.addAction(Intent.ACTION_USER_PRESENT);
+        filter.addAction(Intent.ACTION_TIMEZONE_CHANGED);
+        filter.addAction(Intent.ACTION_TIME_CHANGED);
+        this.context.registerReceiver(systemReceiver, filter, null, worker);
+    }
+
+    public static synchronized ScreenTimeTracker getInstance(Context context) {
+        if (instance == null) {
+            instance = new ScreenTimeTracker(context);
+        }
+        return instance;
+    }
+
+    public long getTodayMillis() {
+        return accounting.getDayTotal(accounting.dayOf(System.currentTimeMillis()));
+    }
+
+    public long getWeekMillis() {
+        return accounting.getWeekTotal(accounting.dayOf(System.currentTimeMillis()));
+    }
+
+    public long getTodayMillis(String packageName) {
+        return accounting.getDayMillis(packageName, accounting.dayOf(System.currentTimeMillis()));
+    }
+
+    public List<String> getTopToday(int limit) {
+        return accounting.topApps(accounting.dayOf(System.currentTimeMillis()), limit);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void onSettingChanged(Setting setting, boolean value) {
+        if (setting == Setting.SCREEN_TIME) {
+            worker.post(this::updateTracking);
+        }
+    }
+
+    /**
+     * 格式化为 "1小时5分" 或 "5分"。
+     */
+    public static String formatDuration(long millis) {
+        long minutes = millis / ForegroundAccounting.MINUTE;
+        if (minutes < 60) {
+            return minutes + "分";
+        }
+        return minutes / 60 + "小时" + minutes % 60 + "分";
+    }
+
+    private void open() {
+        // 加密设置的首次读取涉及密钥库，不放在调用方的主线程
+        settings = SettingsRepository.getInstance(context);
+        UsageLog opened = new UsageLog(file);
+        try {
+            int count = opened.replay(accounting);
+            log = opened;
+            GuardLog.i(TAG, "Usage log replayed: {} intervals", count);
+        } catch (IOException e) {
+            GuardLog.e(TAG, "Error opening usage log", e);
+        }
+        if (log != null && log.length() > COMPACT_THRESHOLD_BYTES) {
+            try {
+                log.compact(System.currentTimeMillis() - RETENTION_MS);
+            } catch (IOException e) {
+                // 压缩失败时原文件仍可追加，下次启动再试
+                GuardLog.e(TAG, "Error compacting usage log", e);
+            }
+        }
+        accounting.setSink((packageName, from, to) -> {
+            if (log == null) {
+                return;
+            }
+            try {
+                log.append(packageName, from, to);
+            } catch (IOException | IllegalArgumentException e) {
+                GuardLog.e(TAG, "Error appending usage", e);
+            }
+        });
+        PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        screenOn = (powerManager == null || powerManager.isInteractive()) && !isKeyguardLocked();
+        settings.addListener(this);
+        updateTracking();
+    }
+
+    /**
+     * 开启且亮屏时计时并每分钟打点，否则截断进行中的区间并停止打点。
+     */
+    private void updateTracking() {
+        if (settings == null) {
+            return;
+        }
+        boolean shouldTrack = screenOn && settings.get(Setting.SCREEN_TIME);
+        if (shouldTrack == tracking) {
+            return;
+        }
+        tracking = shouldTrack;
+        long now = System.currentTimeMillis();
+        if (shouldTrack) {
+            trackingSince = now;
+            accounting.onResume(now);
+            worker.post(checkpointTask);
+        } else {
+            // 先读完停止前的切换
+            pollEvents();
+            accounting.onIdle(now);
+            worker.removeCallbacks(checkpointTask);
+            flush();
+        }
+        GuardLog.d(TAG, "Screen time tracking {}", shouldTrack ? "started" : "stopped");
+    }
+
+    private void checkpoint() {
+        if (!tracking) {
+            return;
+        }
+        pollEvents();
+        accounting.checkpoint(System.currentTimeMillis());
+        flush();
+        for (Listener listener : listeners) {
+            listener.onUsageUpdated();
+        }
+        worker.postDelayed(checkpointTask, CHECKPOINT_INTERVAL_MS);
+    }
+
+    private void pollEvents() {
+        if (detector == null) {
+            if (!new PermissionManager(context).hasUsageStatsPermission()) {
+                return;
+            }
+            detector = new UsageEventsDetector(context);
+        }
+        detector.poll(feed);
+    }
+
+    private void onForeground(String packageName, long timestamp) {
+        accounting.onForeground(packageName, Math.max(timestamp, trackingSince));
+    }
+
+    private void flush() {
+        if (log == null) {
+            return;
+        }
+        try {
+            log.flush();
+        } catch (IOException e) {
+            GuardLog.e(TAG, "Error flushing usage log", e);
+        }
+    }
+
+    /**
+     * 时区或系统时间被修改：之后的区间按新时区划分边界，进行中的区间在此刻截断，
+     * 事件游标按新的时钟重新开始。夏令时切换不需要处理，统计按每个时间点计算偏移。
+     */
+    private void onClockChanged() {
+        long now = System.currentTimeMillis();
+        accounting.setTimeZone(TimeZone.getDefault());
+        detector = null;
+        if (tracking) {
+            accounting.onIdle(now);
+            trackingSince = now;
+            accounting.onResume(now);
+        }
+        GuardLog.i(TAG, "Clock changed, time zone {}", TimeZone.getDefault().getID());
+    }
+
+    private boolean isKeyguardLocked() {
+        KeyguardManager keyguardManager = (KeyguardManager) context.getSystemService(Context.KEYGUARD_SERVICE);
+        return keyguardManager != null && keyguardManager.isKeyguardLocked();
+    }
+
+    private final BroadcastReceiver systemReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            // 运行在统计线程
+            String action = intent.getAction();
+            if (Intent.ACTION_SCREEN_OFF.equals(action)) {
+                screenOn = false;
+                updateTracking();
+            } else if (Intent.ACTION_SCREEN_ON.equals(action)) {
+                // 无锁屏或锁屏已被信任设备等解除时不会再收到 USER_PRESENT
+                if (!isKeyguardLocked()) {
+                    screenOn = true;
+                    updateTracking();
+                }
+            } else if (Intent.ACTION_USER_PRESENT.equals(action)) {
+                screenOn = true;
+                updateTracking();
+            } else {
+                onClockChanged();
+            }
+        }
+    };
+}
@@ -1,6 +1,8 @@
 package com.example.testapp.utils;
 
 import android.app.Activity;
+import android.content.ClipData;
+import android.content.ClipboardManager;
 import android.content.Context;
 import android.content.Intent;
 import android.graphics.PixelFormat;
@@ -12,10 +14,24 @@ import android.view.MotionEvent;
 import android.view.View;
 import android.view.WindowManager;
 import android.widget.Button;
+import android.widget.ScrollView;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
 import com.example.testapp.R;
+import com.example.testapp.core.journal.JournalPage;
+import com.example.testapp.core.journal.JournalRecord;
+import com.example.testapp.core.log.RingLog;
+import com.example.testapp.journal.JournalRecorder;
+import com.example.testapp.policy.PolicyEngine;
+import com.example.testapp.settings.SettingsRepository;
 
 public class DebugOverlayManager {
     private static DebugOverlayManager instance;
@@ -23,6 +39,14 @@ public class DebugOverlayManager {
     private WindowManager windowManager;
     private View debugOverlay;
     private boolean isShowing = false;
+    private static final int LOG_PAGE_SIZE = 50;
+    private int logPage = 0;
+    // 拦截记录翻页：journalCursors[i] 为第 i 页的查询游标
+    private static final long JOURNAL_RANGE_MS = TimeUnit.DAYS.toMillis(7);
+    private boolean journalMode = false;
+    private final List<Long> journalCursors = new ArrayList<>();
+    private int journalPage = 0;
+    private long journalTo;
     
     private DebugOverlayManager(Context context) {
         this.context = context.getApplicationContext();
@@ -78,6 +102,9 @@ public class DebugOverlayManager {
             
             isShowing = true;
             
+            // 显示运行指标
+            updateDebugInfo(GuardMetrics.getInstance().dump());
+            
         } catch (Exception e) {
             e.printStackTrace();
             Toast.makeText(context, "显示调试窗口失败: " + e.getMessage(), Toast.LENGTH_LONG).show();
@@ -147,8 +174,75 @@ public class DebugOverlayManager {
         // 查看日志按钮
         Button viewLogsButton = debugOverlay.findViewById(R.id.btnViewLogs);
         viewLogsButton.setOnClickListener(v -> {
-            // 这里可以添加查看日志的功能
-            Toast.makeText(context, "日志功能暂未实现", Toast.LENGTH_SHORT).show();
+            logPage = 0;
+            journalMode = false;
+            debugOverlay.findViewById(R.id.logControls).setVisibility(View.VISIBLE);
+            showLogPage();
+        });
+        
+        // 拦截记录按钮，显示最近 7 天的拦截与放行判定
+        Button viewJournalButton = debugOverlay.findViewById(R.id.btnViewJournal);
+        viewJournalButton.setOnClickListener(v -> {
+            journalMode = true;
+            journalPage = 0;
+            journalTo = System.currentTimeMillis();
+            journalCursors.clear();
+            journalCursors.add(JournalPage.FIRST);
+            debugOverlay.findViewById(R.id.logControls).setVisibility(View.VISIBLE);
+            showJournalPage();
+        });
+        
+        // 日志翻页：第 0 页为最新的记录
+        Button newerButton = debugOverlay.findViewById(R.id.btnLogNewer);
+        newerButton.setOnClickListener(v -> {
+            if (journalMode) {
+                if (journalPage > 0) {
+                    journalPage--;
+                }
+                showJournalPage();
+                return;
+            }
+            if (logPage > 0) {
+                logPage--;
+            }
+            showLogPage();
+        });
+        
+        Button olderButton = debugOverlay.findViewById(R.id.btnLogOlder);
+        olderButton.setOnClickListener(v -> {
+            if (journalMode) {
+                if (journalPage + 1 < journalCursors.size()) {
+                    journalPage++;
+                }
+                showJournalPage();
+                return;
+            }
+            if ((logPage + 1) * LOG_PAGE_SIZE < GuardLog.buffer().size()) {
+                logPage++;
+            }
+            showLogPage();
+        });
+        
+        // 详细日志开关，关闭时热路径不产生任何调试日志
+        Button levelButton = debugOverlay.findViewById(R.id.btnLogLevel);
+        levelButton.setText(GuardLog.isDebugEnabled() ? "详细: 开" : "详细: 关");
+        levelButton.setOnClickListener(v -> {
+            GuardLog.setDebugEnabled(!GuardLog.isDebugEnabled());
+            levelButton.setText(GuardLog.isDebugEnabled() ? "详细: 开" : "详细: 关");
+        });
+        
+        // 导出运行指标按钮
+        Button exportMetricsButton = debugOverlay.findViewById(R.id.btnExportMetrics);
+        exportMetricsButton.setOnClickListener(v -> {
+            try {
+                String metrics = GuardMetrics.getInstance().dump();
+                ClipboardManager clipboard = (ClipboardManager) context.getSystemService(Context.CLIPBOARD_SERVICE);
+                clipboard.setPrimaryClip(ClipData.newPlainText("运行指标", metrics));
+                updateDebugInfo(metrics);
+                Toast.makeText(context, "运行指标已复制到剪贴板", Toast.LENGTH_SHORT).show();
+            } catch (Exception e) {
+                Toast.makeText(context, "导出指标失败: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            }
         });
         
         // 清除数据按钮
@@ -158,6 +252,8 @@ public class DebugOverlayManager {
                 // 清除应用数据
                 context.getSharedPreferences("app_prefs", Context.MODE_PRIVATE).edit().clear().apply();
                 context.getSharedPreferences("secure_prefs", Context.MODE_PRIVATE).edit().clear().apply();
+                SettingsRepository.getInstance(context).resetAll();
+                PolicyEngine.getInstance(context).clearPackages();
                 Toast.makeText(context, "已清除所有数据", Toast.LENGTH_SHORT).show();
             } catch (Exception e) {
                 Toast.makeText(context, "清除数据失败: " + e.getMessage(), Toast.LENGTH_SHORT).show();
@@ -172,6 +268,64 @@ public class DebugOverlayManager {
         return true;
     }
     
+    private void showLogPage() {
+        RingLog buffer = GuardLog.buffer();
+        int size = buffer.size();
+        int pageCount = Math.max(1, (size + LOG_PAGE_SIZE - 1) / LOG_PAGE_SIZE);
+        
+        StringBuilder content = new StringBuilder();
+        content.append("日志 第 ").append(logPage + 1).append("/").append(pageCount).append(" 页")
+                .append("（共 ").append(size).append(" 条，容量 ").append(buffer.capacity()).append("）\n\n");
+        for (RingLog.Entry entry : buffer.page(logPage, LOG_PAGE_SIZE)) {
+            content.append(entry).append("\n");
+        }
+        if (size == 0) {
+            content.append("暂无日志");
+        }
+        updateDebugInfo(content.toString());
+        
+        ScrollView scrollView = debugOverlay.findViewById(R.id.debugScroll);
+        scrollView.scrollTo(0, 0);
+    }
+    
+    private void showJournalPage() {
+        int page = journalPage;
+        JournalRecorder.getInstance(context).query(journalTo - JOURNAL_RANGE_MS, journalTo,
+                journalCursors.get(page), LOG_PAGE_SIZE, result -> {
+                    if (!isShowing || !journalMode || page != journalPage) {
+                        return;
+                    }
+                    StringBuilder content = new StringBuilder();
+                    content.append("拦截记录 第 ").append(page + 1).append(" 页（最近 7 天）\n\n");
+                    if (result == null) {
+                        content.append("读取拦截记录失败");
+                    } else {
+                        // 记住下一页的游标，"较旧" 按钮据此翻页
+                        if (result.hasMore() && journalCursors.size() == page + 1) {
+                            journalCursors.add(result.getNextCursor());
+                        }
+                        SimpleDateFormat format = new SimpleDateFormat("MM-dd HH:mm:ss", Locale.ROOT);
+                        for (JournalRecord record : result.getRecords()) {
+                            appendRecord(content, format, record);
+                        }
+                        if (result.getRecords().isEmpty()) {
+                            content.append("暂无记录");
+                        }
+                    }
+                    updateDebugInfo(content.toString());
+                    ScrollView scrollView = debugOverlay.findViewById(R.id.debugScroll);
+                    scrollView.scrollTo(0, 0);
+                });
+    }
+    
+    private static void appendRecord(StringBuilder content, SimpleDateFormat format, JournalRecord record) {
+        content.append(format.format(new Date(record.getTime())))
+                .append(record.getDecision() == JournalRecord.Decision.BLOCKED ? " 拦截 " : " 放行 ")
+                .append(record.getPackageName())
+                .append(" (").append(record.getSource()).append(", ")
+                .append(record.getLatencyNanos() / 1000).append(" us)\n");
+    }
+    
     public void updateDebugInfo(String info) {
         if (!isShowing || debugOverlay == null) {
             return;
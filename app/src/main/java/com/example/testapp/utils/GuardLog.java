@@ -0,0 +1,94 @@
+package com.example.testapp.utils;
+
+import android.util.Log;
+
+import com.example.testapp.core.log.RingLog;
+
+/**
+ * 热路径日志入口。按级别过滤，关闭时不拼接字符串；开启时写入内存环形缓冲区而不是 logcat，
+ * 可在调试窗口中分页查看。错误级别同时输出到 logcat。
+ * 带参数的重载使用 "{}" 占位符，仅在级别开启时格式化。
+ */
+public final class GuardLog {
+    private static final int CAPACITY = 4096;
+    private static final RingLog BUFFER = new RingLog(CAPACITY);
+
+    private GuardLog() {
+    }
+
+    public static RingLog buffer() {
+        return BUFFER;
+    }
+
+    public static boolean isDebugEnabled() {
+        return BUFFER.isLoggable(RingLog.DEBUG);
+    }
+
+    public static void setDebugEnabled(boolean enabled) {
+        BUFFER.setMinLevel(enabled ? RingLog.DEBUG : RingLog.INFO);
+    }
+
+    public static void d(String tag, String message) {
+        if (BUFFER.isLoggable(RingLog.DEBUG)) {
+            BUFFER.write(System.currentTimeMillis(), RingLog.DEBUG, tag, message);
+        }
+    }
+
+    public static void d(String tag, String template, Object arg) {
+        if (BUFFER.isLoggable(RingLog.DEBUG)) {
+            BUFFER.write(System.currentTimeMillis(), RingLog.DEBUG, tag, RingLog.format(template, arg, null));
+        }
+    }
+
+    public static void d(String tag, String template, Object first, Object second) {
+        if (BUFFER.isLoggable(RingLog.DEBUG)) {
+            BUFFER.write(System.currentTimeMillis(), RingLog.DEBUG, tag, RingLog.format(template, first, second));
+        }
+    }
+
+    public static void i(String tag, String message) {
+        if (BUFFER.isLoggable(RingLog.INFO)) {
+            BUFFER.write(System.currentTimeMillis(), RingLog.INFO, tag, message);
+        }
+    }
+
+    public static void i(String tag, String template, Object arg) {
+        if (BUFFER.isLoggable(RingLog.INFO)) {
+            BUFFER.write(System.currentTimeMillis(), RingLog.INFO, tag, RingLog.format(template, arg, null));
+        }
+    }
+
+    public static void i(String tag, String template, Object first, Object second) {
+        if (BUFFER.isLoggable(RingLog.INFO)) {
+            BUFFER.write(System.currentTimeMillis(), RingLog.INFO, tag, RingLog.format(template, first, second));
+        }
+    }
+
+    public static void w(String tag, String message) {
+        if (BUFFER.isLoggable(RingLog.WARN)) {
+            BUFFER.write(System.currentTimeMillis(), RingLog.WARN, tag, message);
+        }
+    }
+
+    public static void w(String tag, String template, Object arg) {
+        if (BUFFER.isLoggable(RingLog.WARN)) {
+            BUFFER.write(System.currentTimeMillis(), RingLog.WARN, tag, RingLog.format(template, arg, null));
+        }
+    }
+
+    public static void w(String tag, String template, Object first, Object second) {
+        if (BUFFER.isLoggable(RingLog.WARN)) {
+            BUFFER.write(System.currentTimeMillis(), RingLog.WARN, tag, RingLog.format(template, first, second));
+        }
+    }
+
+    public static void e(String tag, String message) {
+        e(tag, message, null);
+    }
+
+    public static void e(String tag, String message, Throwable throwable) {
+        Log.e(tag, message, throwable);
+        BUFFER.write(System.currentTimeMillis(), RingLog.ERROR, tag,
+                throwable != null ? message + ": " + throwable : message);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.testapp.utils;
+
+import android.os.SystemClock;
+
+import com.example.testapp.core.detect.DetectorRegistry;
+import com.example.testapp.core.metrics.LatencyHistogram;
+import com.example.testapp.core.policy.PolicyDelta;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 拦截链路的运行指标，供调试窗口查看。
+ */
+public class GuardMetrics {
+    private static GuardMetrics instance;
+
+    private final AtomicLong pollTicks = new AtomicLong();
+    private volatile long pollInterval;
+    private volatile boolean pollingActive;
+    private final AtomicLong blocksDispatched = new AtomicLong();
+    private final AtomicLong blocksSuppressed = new AtomicLong();
+    private final AtomicLong eventsCoalesced = new AtomicLong();
+    private final AtomicLong journalDropped = new AtomicLong();
+    // 拦截延迟各阶段：检测 -> 判定 -> 分发 -> 覆盖层可见
+    private final LatencyHistogram detectToDecide = new LatencyHistogram();
+    private final LatencyHistogram decideToDispatch = new LatencyHistogram();
+    private final LatencyHistogram dispatchToVisible = new LatencyHistogram();
+    private final LatencyHistogram detectToVisible = new LatencyHistogram();
+    // 策略从发布到各检测服务生效的延迟
+    private final LatencyHistogram policyApply = new LatencyHistogram();
+    private volatile long policyVersion;
+
+    private GuardMetrics() {
+    }
+
+    public static synchronized GuardMetrics getInstance() {
+        if (instance == null) {
+            instance = new GuardMetrics();
+        }
+        return instance;
+    }
+
+    public void recordPoll(long nextInterval) {
+        pollTicks.incrementAndGet();
+        pollInterval = nextInterval;
+    }
+
+    public void setPollingActive(boolean active) {
+        pollingActive = active;
+    }
+
+    public void recordBlockDispatched() {
+        blocksDispatched.incrementAndGet();
+    }
+
+    public void recordBlockSuppressed() {
+        blocksSuppressed.incrementAndGet();
+    }
+
+    public void recordJournalDropped() {
+        journalDropped.incrementAndGet();
+    }
+
+    /**
+     * 记录一次完整拦截的各阶段时间点，参数均为 {@code SystemClock.elapsedRealtimeNanos()}。
+     */
+    public void recordBlockLatency(long detectedAt, long decidedAt, long dispatchedAt, long visibleAt) {
+        detectToDecide.record((decidedAt - detectedAt) / 1000);
+        decideToDispatch.record((dispatchedAt - decidedAt) / 1000);
+        dispatchToVisible.record((visibleAt - dispatchedAt) / 1000);
+        detectToVisible.record((visibleAt - detectedAt) / 1000);
+    }
+
+    public LatencyHistogram getBlockLatency() {
+        return detectToVisible;
+    }
+
+    public void resetLatency() {
+        detectToDecide.reset();
+        decideToDispatch.reset();
+        dispatchToVisible.reset();
+        detectToVisible.reset();
+    }
+
+    /**
+     * 检测服务替换策略快照后调用。
+     */
+    public void recordPolicyApplied(PolicyDelta delta) {
+        policyApply.record((SystemClock.elapsedRealtimeNanos() - delta.getPublishedAt()) / 1000);
+        policyVersion = delta.getVersion();
+    }
+
+    public LatencyHistogram getPolicyApplyLatency() {
+        return policyApply;
+    }
+
+    public void recordEventCoalesced() {
+        eventsCoalesced.incrementAndGet();
+    }
+
+    public long getBlocksDispatched() {
+        return blocksDispatched.get();
+    }
+
+    public long getBlocksSuppressed() {
+        return blocksSuppressed.get();
+    }
+
+    public long getPollTicks() {
+        return pollTicks.get();
+    }
+
+    public long getPollInterval() {
+        return pollInterval;
+    }
+
+    public boolean isPollingActive() {
+        return pollingActive;
+    }
+
+    public String dump() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("主检测来源: ").append(DetectorRegistry.getInstance().getPrimary()).append("\n");
+        builder.append("轮询状态: ").append(pollingActive ? "运行中" : "已暂停").append("\n");
+        builder.append("轮询次数: ").append(pollTicks.get()).append("\n");
+        builder.append("当前间隔: ").append(pollInterval).append(" ms\n");
+        builder.append("已拦截: ").append(blocksDispatched.get()).append("\n");
+        builder.append("合并重复拦截: ").append(blocksSuppressed.get()).append("\n");
+        builder.append("合并窗口事件: ").append(eventsCoalesced.get()).append("\n");
+        builder.append("日志丢弃: ").append(journalDropped.get()).append("\n");
+        builder.append("拦截延迟 (p50/p95/p99/max, ms):\n");
+        appendLatency(builder, "检测→判定", detectToDecide);
+        appendLatency(builder, "判定→分发", decideToDispatch);
+        appendLatency(builder, "分发→可见", dispatchToVisible);
+        appendLatency(builder, "总计", detectToVisible);
+        builder.append("策略版本: v").append(policyVersion).append("\n");
+        appendLatency(builder, "策略生效", policyApply);
+        return builder.toString();
+    }
+
+    private static void appendLatency(StringBuilder builder, String label, LatencyHistogram histogram) {
+        builder.append("  ").append(label).append(": ")
+                .append(formatMillis(histogram.percentile(0.50))).append(" / ")
+                .append(formatMillis(histogram.percentile(0.95))).append(" / ")
+                .append(formatMillis(histogram.percentile(0.99))).append(" / ")
+                .append(formatMillis(histogram.getMax()))
+                .append(" (n=").append(histogram.getCount()).append(")\n");
+    }
+
+    private static String formatMillis(long micros) {
+        return String.format(java.util.Locale.ROOT, "%.1f", micros / 1000.0);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.testapp.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.security.crypto.EncryptedFile;
+import androidx.security.crypto.EncryptedSharedPreferences;
+import androidx.security.crypto.MasterKey;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+/**
+ * 加密存储的入口。主密钥保存在 Android Keystore 中，不随备份导出，
+ * 因此加密后的文件在其他设备上无法解密，也不应参与备份（见 backup_rules.xml）。
+ * 打开密钥的开销较大，调用方在加载时解密一次并缓存明文快照。
+ */
+public final class SecureStorage {
+    /** 加密文件的密钥集所在的配置文件名，备份规则中需排除 */
+    public static final String FILE_KEYSET_PREFS = "secure_file_keyset";
+
+    private static MasterKey masterKey;
+
+    private SecureStorage() {
+    }
+
+    public static synchronized MasterKey masterKey(Context context) throws GeneralSecurityException, IOException {
+        if (masterKey == null) {
+            masterKey = new MasterKey.Builder(context.getApplicationContext())
+                    .setKeyScheme(MasterKey.KeyScheme.AES256_GCM)
+                    .build();
+        }
+        return masterKey;
+    }
+
+    /**
+     * 文件名作为认证数据参与加密，文件只能以原名读取；需要重命名替换时，临时文件应放在其他目录下并使用相同文件名。
+     */
+    public static EncryptedFile file(Context context, File file) throws GeneralSecurityException, IOException {
+        return new EncryptedFile.Builder(context.getApplicationContext(), file, masterKey(context),
+                EncryptedFile.FileEncryptionScheme.AES256_GCM_HKDF_4KB)
+                .setKeysetPrefName(FILE_KEYSET_PREFS)
+                .build();
+    }
+
+    public static SharedPreferences prefs(Context context, String name) throws GeneralSecurityException, IOException {
+        return EncryptedSharedPreferences.create(context.getApplicationContext(), name, masterKey(context),
+                EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
+                EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.testapp.benchmark;
+
+import com.example.testapp.core.search.AppFilter;
+import com.example.testapp.core.search.NameFilter;
+import com.example.testapp.core.search.SearchIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 应用列表搜索：每次按键对完整列表执行一次过滤。
+ * filter 为逐项转小写的旧实现，indexQuery 查询预先构建的索引，buildIndex 为每次目录加载的建索引成本。
+ * hitRatio 为 0 时查询不命中任何应用，为 1 时命中全部，0.5 时约命中一半。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppSearchBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    @Param({"0.0", "0.5", "1.0"})
+    public double hitRatio;
+
+    private final AppFilter filter = new NameFilter();
+    private List<BenchmarkData.Item> items;
+    private SearchIndex<BenchmarkData.Item> index;
+    private String query;
+
+    @Setup
+    public void setUp() {
+        items = BenchmarkData.items(size);
+        if (hitRatio <= 0.0) {
+            query = "zzz";
+        } else if (hitRatio >= 1.0) {
+            query = " ";
+        } else {
+            // 名称由 10 个词随机组成，其中 5 个含字母 a
+            query = "a";
+        }
+        index = SearchIndex.build(items, SearchIndex.NO_PINYIN);
+    }
+
+    @Benchmark
+    public List<BenchmarkData.Item> filter() {
+        return filter.filter(items, query);
+    }
+
+    @Benchmark
+    public List<BenchmarkData.Item> indexQuery() {
+        return index.query(query);
+    }
+
+    @Benchmark
+    public SearchIndex<BenchmarkData.Item> buildIndex() {
+        return SearchIndex.build(items, SearchIndex.NO_PINYIN);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.testapp.benchmark;
+
+import com.example.testapp.core.catalog.CatalogItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试的输入数据，固定随机种子保证每次运行输入一致。
+ */
+final class BenchmarkData {
+    static final int PROBE_COUNT = 1024;
+    private static final String[] WORDS = {
+            "微信", "支付宝", "抖音", "淘宝", "Maps", "Radio", "Camera", "Reader", "Chat", "Gallery"
+    };
+
+    private BenchmarkData() {
+    }
+
+    static String packageName(int index) {
+        return "com.vendor" + (index % 97) + ".app" + index;
+    }
+
+    static List<String> packages(int size) {
+        List<String> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(packageName(i));
+        }
+        return result;
+    }
+
+    /**
+     * 生成查询用的包名，其中约 hitRatio 比例落在前 size 个包名内，其余均不命中。
+     */
+    static String[] probes(int size, double hitRatio) {
+        Random random = new Random(42);
+        String[] result = new String[PROBE_COUNT];
+        for (int i = 0; i < PROBE_COUNT; i++) {
+            if (random.nextDouble() < hitRatio) {
+                result[i] = packageName(random.nextInt(size));
+            } else {
+                result[i] = packageName(size + random.nextInt(size + 1));
+            }
+        }
+        return result;
+    }
+
+    static List<Item> items(int size) {
+        Random random = new Random(7);
+        List<Item> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + i;
+            result.add(new Item(packageName(i), name));
+        }
+        return result;
+    }
+
+    /**
+     * 从前 size 个包名中随机挑选约 hitRatio 比例作为已保存的选择。
+     */
+    static List<String> selection(int size, double hitRatio) {
+        Random random = new Random(11);
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (random.nextDouble() < hitRatio) {
+                result.add(packageName(i));
+            }
+        }
+        return result;
+    }
+
+    static final class Item implements CatalogItem {
+        private final String packageName;
+        private final String appName;
+        // 仅供旧实现的对照基准使用
+        private boolean selected;
+
+        Item(String packageName, String appName) {
+            this.packageName = packageName;
+            this.appName = appName;
+        }
+
+        @Override
+        public String getPackageName() {
+            return packageName;
+        }
+
+        @Override
+        public String getAppName() {
+            return appName;
+        }
+
+        boolean isSelected() {
+            return selected;
+        }
+
+        void setSelected(boolean selected) {
+            this.selected = selected;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.testapp.benchmark;
+
+import com.example.testapp.core.policy.BlockPolicy;
+import com.example.testapp.core.policy.PackageLists;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 拦截判定路径：预编译快照与旧的逐事件 split/trim 扫描对比。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolicyDecisionBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    @Param({"0.0", "0.5", "1.0"})
+    public double hitRatio;
+
+    private BlockPolicy policy;
+    private String blacklistApps;
+    private String[] probes;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        blacklistApps = PackageLists.join(BenchmarkData.packages(size));
+        policy = BlockPolicy.compile("com.example.testapp", true, true, blacklistApps, "");
+        probes = BenchmarkData.probes(size, hitRatio);
+    }
+
+    @Benchmark
+    public boolean compiledSnapshot() {
+        return policy.shouldBlock(nextProbe());
+    }
+
+    @Benchmark
+    public boolean legacySplitScan() {
+        String packageName = nextProbe();
+        String[] blockedPackages = blacklistApps.split(",");
+        for (String blockedPackage : blockedPackages) {
+            if (blockedPackage.trim().equals(packageName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String nextProbe() {
+        cursor = (cursor + 1) & (BenchmarkData.PROBE_COUNT - 1);
+        return probes[cursor];
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.testapp.benchmark;
+
+import com.example.testapp.core.policy.PackageLists;
+import com.example.testapp.core.policy.PolicyCodec;
+import com.example.testapp.core.policy.PolicyData;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 策略列表的序列化与反序列化：旧的逗号分隔字符串与二进制策略文件格式对比。
+ * 二进制解码从堆外缓冲区读取，模拟内存映射文件。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolicySerializationBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    private List<String> packages;
+    private String joined;
+    private PolicyData data;
+    private ByteBuffer encoded;
+
+    @Setup
+    public void setUp() {
+        packages = BenchmarkData.packages(size);
+        joined = PackageLists.join(packages);
+        data = new PolicyData(packages, Collections.<String>emptyList());
+        byte[] bytes = PolicyCodec.encode(data);
+        encoded = ByteBuffer.allocateDirect(bytes.length);
+        encoded.put(bytes);
+        encoded.flip();
+    }
+
+    @Benchmark
+    public String joinCommaList() {
+        return PackageLists.join(packages);
+    }
+
+    @Benchmark
+    public Set<String> parseCommaList() {
+        return PackageLists.parse(joined);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return PolicyCodec.encode(data);
+    }
+
+    @Benchmark
+    public PolicyData decodeBinary() throws IOException {
+        return PolicyCodec.decode(encoded.duplicate());
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.testapp.benchmark;
+
+import com.example.testapp.core.policy.PackageLists;
+import com.example.testapp.core.selection.SelectionSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 打开应用列表时恢复已保存的选择、保存时收集选择：按包名的选择集合与旧的列表标志位实现对比。
+ * 恢复结果以可见列表中已选中的数量作为输出，避免被优化掉。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectionRestoreBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    @Param({"0.0", "0.5", "1.0"})
+    public double hitRatio;
+
+    private List<BenchmarkData.Item> items;
+    private String savedApps;
+    private SelectionSet selection;
+
+    @Setup
+    public void setUp() {
+        items = BenchmarkData.items(size);
+        savedApps = PackageLists.join(BenchmarkData.selection(size, hitRatio));
+        selection = new SelectionSet(PackageLists.parse(savedApps));
+        for (BenchmarkData.Item item : items) {
+            item.setSelected(selection.isSelected(item.getPackageName()));
+        }
+    }
+
+    @Benchmark
+    public int selectionSetRestore() {
+        SelectionSet restored = new SelectionSet(PackageLists.parse(savedApps));
+        return restored.countSelected(items);
+    }
+
+    @Benchmark
+    public String selectionSetSave() {
+        return PackageLists.join(selection.sortedPackages());
+    }
+
+    @Benchmark
+    public String legacyFlagSave() {
+        StringBuilder builder = new StringBuilder();
+        for (BenchmarkData.Item item : items) {
+            if (item.isSelected()) {
+                if (builder.length() > 0) {
+                    builder.append(",");
+                }
+                builder.append(item.getPackageName());
+            }
+        }
+        return builder.toString();
+    }
+
+    @Benchmark
+    public List<BenchmarkData.Item> legacyNestedLoop() {
+        if (!savedApps.isEmpty()) {
+            String[] selectedPackages = savedApps.split(",");
+            for (BenchmarkData.Item item : items) {
+                for (String selectedPackage : selectedPackages) {
+                    if (item.getPackageName().equals(selectedPackage.trim())) {
+                        item.setSelected(true);
+                        break;
+                    }
+                }
+            }
+        }
+        return items;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.testapp.core.catalog;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 应用目录的二进制格式：魔数、版本号、条目数，之后逐条写入定长字段和 UTF 字符串。
+ * 读取时格式不符直接抛出 {@link IOException}，调用方丢弃缓存重新构建即可。
+ */
+public final class CatalogCodec {
+    static final int MAGIC = 0x41504354; // "APCT"
+    static final int VERSION = 1;
+    private static final int MAX_ENTRIES = 100000;
+
+    private CatalogCodec() {
+    }
+
+    public static void write(List<CatalogEntry> entries, DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(entries.size());
+        for (CatalogEntry entry : entries) {
+            out.writeUTF(entry.getPackageName());
+            out.writeUTF(entry.getLabel());
+            out.writeInt(entry.getFlags());
+            out.writeLong(entry.getVersionCode());
+            out.writeLong(entry.getLastUpdateTime());
+            out.writeUTF(entry.getSortKey());
+        }
+        out.flush();
+    }
+
+    public static List<CatalogEntry> read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a catalog file");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported catalog version: " + version);
+        }
+        int count = in.readInt();
+        if (count < 0 || count > MAX_ENTRIES) {
+            throw new IOException("Corrupt catalog entry count: " + count);
+        }
+        List<CatalogEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String packageName = in.readUTF();
+            String label = in.readUTF();
+            int flags = in.readInt();
+            long versionCode = in.readLong();
+            long lastUpdateTime = in.readLong();
+            String sortKey = in.readUTF();
+            entries.add(new CatalogEntry(packageName, label, flags, versionCode, lastUpdateTime, sortKey));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.testapp.core.catalog;
+
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * 应用目录中的一条记录，不可变。{@code lastUpdateTime} 用于判断缓存是否需要重新加载名称。
+ */
+public final class CatalogEntry implements CatalogItem {
+    /** 按排序键、再按包名排序，与旧版按名称忽略大小写排序的结果一致 */
+    public static final Comparator<CatalogEntry> ORDER = new Comparator<CatalogEntry>() {
+        @Override
+        public int compare(CatalogEntry a, CatalogEntry b) {
+            int result = a.sortKey.compareTo(b.sortKey);
+            return result != 0 ? result : a.packageName.compareTo(b.packageName);
+        }
+    };
+
+    private final String packageName;
+    private final String label;
+    private final int flags;
+    private final long versionCode;
+    private final long lastUpdateTime;
+    private final String sortKey;
+
+    public CatalogEntry(String packageName, String label, int flags, long versionCode, long lastUpdateTime) {
+        this(packageName, label, flags, versionCode, lastUpdateTime, sortKeyOf(label));
+    }
+
+    public CatalogEntry(String packageName, String label, int flags, long versionCode, long lastUpdateTime,
+                        String sortKey) {
+        this.packageName = packageName;
+        this.label = label;
+        this.flags = flags;
+        this.versionCode = versionCode;
+        this.lastUpdateTime = lastUpdateTime;
+        this.sortKey = sortKey;
+    }
+
+    public static String sortKeyOf(String label) {
+        return label.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String getPackageName() {
+        return packageName;
+    }
+
+    @Override
+    public String getAppName() {
+        return label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    public long getVersionCode() {
+        return versionCode;
+    }
+
+    public long getLastUpdateTime() {
+        return lastUpdateTime;
+    }
+
+    public String getSortKey() {
+        return sortKey;
+    }
+}
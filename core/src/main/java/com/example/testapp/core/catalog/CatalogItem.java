@@ -0,0 +1,10 @@
+package com.example.testapp.core.catalog;
+
+/**
+ * 应用列表中的一项，只包含与平台无关的信息。
+ */
+public interface CatalogItem {
+    String getPackageName();
+
+    String getAppName();
+}
@@ -0,0 +1,36 @@
+package com.example.testapp.core.catalog;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按包名索引的应用元数据，读操作无锁，可在任意线程调用。
+ */
+public final class PackageIndex {
+    private final ConcurrentHashMap<String, PackageRecord> records = new ConcurrentHashMap<>();
+
+    public PackageRecord get(String packageName) {
+        return records.get(packageName);
+    }
+
+    public void put(PackageRecord record) {
+        records.put(record.getPackageName(), record);
+    }
+
+    /**
+     * 仅在尚无记录时写入，用于批量加载，避免覆盖加载期间由广播写入的更新记录。
+     */
+    public void putIfAbsent(PackageRecord record) {
+        records.putIfAbsent(record.getPackageName(), record);
+    }
+
+    /**
+     * 仅当当前记录仍是 expected 时替换，返回是否替换。
+     */
+    public boolean replace(PackageRecord expected, PackageRecord record) {
+        return records.replace(record.getPackageName(), expected, record);
+    }
+
+    public void remove(String packageName) {
+        records.remove(packageName);
+    }
+}
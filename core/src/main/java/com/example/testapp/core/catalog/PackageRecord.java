@@ -0,0 +1,47 @@
+package com.example.testapp.core.catalog;
+
+/**
+ * 已安装应用的元数据快照，不可变。
+ * 名称加载需要额外的系统调用，可以为 null 表示尚未加载，由 {@link #withLabel(String)} 补上。
+ */
+public final class PackageRecord {
+    public static final int CATEGORY_UNDEFINED = -1;
+
+    private final String packageName;
+    private final String label;
+    private final boolean systemApp;
+    private final int category;
+    private final int uid;
+
+    public PackageRecord(String packageName, String label, boolean systemApp, int category, int uid) {
+        this.packageName = packageName;
+        this.label = label;
+        this.systemApp = systemApp;
+        this.category = category;
+        this.uid = uid;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isSystemApp() {
+        return systemApp;
+    }
+
+    public int getCategory() {
+        return category;
+    }
+
+    public int getUid() {
+        return uid;
+    }
+
+    public PackageRecord withLabel(String newLabel) {
+        return new PackageRecord(packageName, newLabel, systemApp, category, uid);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.testapp.core.catalog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 按 {@link CatalogEntry#ORDER} 保持有序的目录，支持分批并入新加载的条目。
+ * 每批先在批内排序，再与已有列表线性归并，避免每批都对整个目录重新排序。非线程安全。
+ */
+public final class SortedCatalog {
+    private ArrayList<CatalogEntry> entries;
+
+    public SortedCatalog(Collection<CatalogEntry> initial) {
+        entries = new ArrayList<>(initial);
+        Collections.sort(entries, CatalogEntry.ORDER);
+    }
+
+    public void addAll(List<CatalogEntry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<CatalogEntry> sortedBatch = new ArrayList<>(batch);
+        Collections.sort(sortedBatch, CatalogEntry.ORDER);
+
+        ArrayList<CatalogEntry> merged = new ArrayList<>(entries.size() + sortedBatch.size());
+        int i = 0;
+        int j = 0;
+        while (i < entries.size() && j < sortedBatch.size()) {
+            if (CatalogEntry.ORDER.compare(entries.get(i), sortedBatch.get(j)) <= 0) {
+                merged.add(entries.get(i++));
+            } else {
+                merged.add(sortedBatch.get(j++));
+            }
+        }
+        while (i < entries.size()) {
+            merged.add(entries.get(i++));
+        }
+        while (j < sortedBatch.size()) {
+            merged.add(sortedBatch.get(j++));
+        }
+        entries = merged;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 当前内容的不可变副本，可安全交给其他线程。
+     */
+    public List<CatalogEntry> snapshot() {
+        return Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+}
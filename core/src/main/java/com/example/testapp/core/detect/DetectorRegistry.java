@@ -0,0 +1,80 @@
+package com.example.testapp.core.detect;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 记录各前台检测来源是否可用，并据此选出主检测来源。
+ * 无障碍事件开销最低，可用时作为主来源，轮询只在其不可用时兜底。
+ */
+public final class DetectorRegistry {
+    public enum Source {
+        ACCESSIBILITY,
+        USAGE_POLLING
+    }
+
+    public interface Listener {
+        void onPrimaryChanged(Source primary);
+    }
+
+    private static DetectorRegistry instance;
+
+    private final boolean[] alive = new boolean[Source.values().length];
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public static synchronized DetectorRegistry getInstance() {
+        if (instance == null) {
+            instance = new DetectorRegistry();
+        }
+        return instance;
+    }
+
+    public void markAlive(Source source) {
+        setAlive(source, true);
+    }
+
+    public void markDead(Source source) {
+        setAlive(source, false);
+    }
+
+    public synchronized boolean isAlive(Source source) {
+        return alive[source.ordinal()];
+    }
+
+    public synchronized Source getPrimary() {
+        return alive[Source.ACCESSIBILITY.ordinal()] ? Source.ACCESSIBILITY : Source.USAGE_POLLING;
+    }
+
+    /**
+     * 轮询检测是否需要运行：仅当无障碍来源不可用时。
+     */
+    public boolean shouldPoll() {
+        return getPrimary() == Source.USAGE_POLLING;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void setAlive(Source source, boolean value) {
+        Source before;
+        Source after;
+        synchronized (this) {
+            if (alive[source.ordinal()] == value) {
+                return;
+            }
+            before = getPrimary();
+            alive[source.ordinal()] = value;
+            after = getPrimary();
+        }
+        // 在锁外回调，避免监听器重入造成死锁
+        if (before != after) {
+            for (Listener listener : listeners) {
+                listener.onPrimaryChanged(after);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.testapp.core.dispatch;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * 按包名合并拦截请求：同一应用在时间窗口内只放行第一次。
+ */
+public final class BlockCoalescer {
+    // 超过该数量时清理已过期的记录
+    private static final int PRUNE_THRESHOLD = 64;
+
+    private final Map<String, Long> lastDispatch = new HashMap<>();
+    private final long window;
+
+    public BlockCoalescer(long window) {
+        if (window < 0) {
+            throw new IllegalArgumentException("Window must not be negative: " + window);
+        }
+        this.window = window;
+    }
+
+    /**
+     * 返回 true 表示应当执行这次拦截，false 表示它是窗口内的重复请求。
+     */
+    public synchronized boolean tryAcquire(String packageName, long now) {
+        Long last = lastDispatch.get(packageName);
+        if (last != null && now - last < window) {
+            return false;
+        }
+        if (lastDispatch.size() >= PRUNE_THRESHOLD) {
+            prune(now);
+        }
+        lastDispatch.put(packageName, now);
+        return true;
+    }
+
+    /**
+     * 拦截界面被关闭后调用，允许同一应用立即再次触发拦截。
+     */
+    public synchronized void release(String packageName) {
+        lastDispatch.remove(packageName);
+    }
+
+    private void prune(long now) {
+        Iterator<Map.Entry<String, Long>> iterator = lastDispatch.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().getValue() >= window) {
+                iterator.remove();
+            }
+        }
+    }
+}
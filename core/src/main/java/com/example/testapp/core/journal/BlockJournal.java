@@ -0,0 +1,410 @@
+package com.example.testapp.core.journal;
+
+import com.example.testapp.core.detect.DetectorRegistry;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+/**
+ * 拦截与放行判定的追加式日志，按固定大小分段保存在一个目录中。
+ * <pre>
+ * 段文件 NNNNNNNNNN.seg：魔数(4) 版本(2) 保留(2)，之后为连续的记录：
+ * CRC32(4) 时间(8) 延迟纳秒(8) 来源(1) 判定(1) 包名 UTF-8 字节数(2) + 字节
+ * </pre>
+ * 记录先写入内存缓冲区，{@link #flush()} 时写到文件通道；当前段写满后轮转到新段，
+ * 总大小超过上限时删除最旧的段。{@link #compact(long)} 从已封存的段中丢弃过期的放行记录后重写。
+ * 打开时扫描已有的段重建索引，末尾写了一半的记录（进程被杀）会被截掉。
+ * 非线程安全，所有方法应在同一个后台线程上调用。
+ */
+public final class BlockJournal implements Closeable {
+    static final int MAGIC = 0x424A4E4C; // "BJNL"
+    static final short VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 24;
+    private static final int BUFFER_SIZE = 8192;
+    private static final String SUFFIX = ".seg";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File dir;
+    private final int segmentBytes;
+    private final long maxTotalBytes;
+    private final ByteBuffer buffer;
+    // 从旧到新
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment active;
+    private RandomAccessFile activeFile;
+    private FileChannel channel;
+
+    /**
+     * @param segmentBytes  单个段文件的大小上限
+     * @param maxTotalBytes 所有段的总大小上限，超过后删除最旧的段
+     */
+    public BlockJournal(File dir, int segmentBytes, long maxTotalBytes) throws IOException {
+        if (segmentBytes < SEGMENT_HEADER_SIZE + RECORD_HEADER_SIZE + 256) {
+            throw new IllegalArgumentException("Segment too small: " + segmentBytes);
+        }
+        if (maxTotalBytes < segmentBytes) {
+            throw new IllegalArgumentException("Retention cap below one segment: " + maxTotalBytes);
+        }
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.maxTotalBytes = maxTotalBytes;
+        this.buffer = ByteBuffer.allocate(Math.min(BUFFER_SIZE, segmentBytes - SEGMENT_HEADER_SIZE));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Failed to create " + dir);
+        }
+        recover();
+    }
+
+    public void append(JournalRecord record) throws IOException {
+        byte[] name = record.getPackageName().getBytes(StandardCharsets.UTF_8);
+        int size = RECORD_HEADER_SIZE + name.length;
+        if (size > buffer.capacity()) {
+            throw new IllegalArgumentException("Record too large: " + record.getPackageName());
+        }
+        if (active.length + size > segmentBytes) {
+            rotate();
+        }
+        if (buffer.remaining() < size) {
+            flush();
+        }
+        int start = buffer.position();
+        buffer.position(start + 4);
+        buffer.putLong(record.getTime());
+        buffer.putLong(record.getLatencyNanos());
+        buffer.put((byte) record.getSource().ordinal());
+        buffer.put((byte) record.getDecision().ordinal());
+        buffer.putShort((short) name.length);
+        buffer.put(name);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), start + 4, size - 4);
+        buffer.putInt(start, (int) crc.getValue());
+        active.add(record, size);
+    }
+
+    /**
+     * 把缓冲区中的记录写到文件（不强制落盘）。
+     */
+    public void flush() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * 按时间范围分页查询，结果从新到旧。
+     *
+     * @param cursor 首页传 {@link JournalPage#FIRST}，之后传上一页的 {@link JournalPage#getNextCursor()}。
+     *               压缩会重写段内位置，压缩后继续翻页可能跳过或重复少量记录
+     */
+    public JournalPage query(long fromTime, long toTime, long cursor, int limit) throws IOException {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive: " + limit);
+        }
+        flush();
+        List<JournalRecord> result = new ArrayList<>();
+        long lastPosition = JournalPage.END;
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Segment segment = segments.get(i);
+            if (position(segment.id, 0) >= cursor || segment.count == 0 ||
+                    segment.maxTime < fromTime || segment.minTime > toTime) {
+                continue;
+            }
+            Scan scan = scan(segment.file, segment.length);
+            for (int j = scan.count - 1; j >= 0; j--) {
+                long position = position(segment.id, scan.offsets[j]);
+                JournalRecord record = scan.records.get(j);
+                if (position >= cursor || record.getTime() < fromTime || record.getTime() > toTime) {
+                    continue;
+                }
+                // 多取一条用于判断是否还有下一页
+                if (result.size() == limit) {
+                    return new JournalPage(result, lastPosition);
+                }
+                result.add(record);
+                lastPosition = position;
+            }
+        }
+        return new JournalPage(result, JournalPage.END);
+    }
+
+    /**
+     * 重写已封存的段，丢弃早于 allowCutoff 的放行记录；不再含有记录的段直接删除。
+     * 放行记录数量远多于拦截记录，压缩后同样的容量上限能保留更久的拦截历史。
+     *
+     * @return 释放的字节数
+     */
+    public long compact(long allowCutoff) throws IOException {
+        long reclaimed = 0;
+        for (int i = segments.size() - 2; i >= 0; i--) {
+            Segment segment = segments.get(i);
+            if (segment.allowCount == 0 || segment.minTime >= allowCutoff) {
+                continue;
+            }
+            Scan scan = scan(segment.file, segment.length);
+            Segment compacted = new Segment(segment.id, segment.file);
+            ByteBuffer output = ByteBuffer.allocate((int) segment.length);
+            writeHeader(output);
+            for (int j = 0; j < scan.count; j++) {
+                JournalRecord record = scan.records.get(j);
+                if (record.getDecision() == JournalRecord.Decision.ALLOWED && record.getTime() < allowCutoff) {
+                    continue;
+                }
+                int end = j + 1 < scan.count ? scan.offsets[j + 1] : scan.validLength;
+                output.put(scan.data, scan.offsets[j], end - scan.offsets[j]);
+                compacted.add(record, end - scan.offsets[j]);
+            }
+            reclaimed += segment.length - compacted.length;
+            if (compacted.count == 0) {
+                delete(segment.file);
+                segments.remove(i);
+                continue;
+            }
+            File temp = new File(dir, segment.file.getName() + TEMP_SUFFIX);
+            try (FileOutputStream stream = new FileOutputStream(temp)) {
+                stream.write(output.array(), 0, output.position());
+                stream.getFD().sync();
+            } catch (IOException e) {
+                temp.delete();
+                throw e;
+            }
+            if (!temp.renameTo(segment.file)) {
+                temp.delete();
+                throw new IOException("Failed to replace " + segment.file);
+            }
+            segments.set(i, compacted);
+        }
+        return reclaimed;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public long getTotalBytes() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.length;
+        }
+        return total;
+    }
+
+    public long getRecordCount() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.count;
+        }
+        return total;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            channel.force(false);
+        } finally {
+            activeFile.close();
+        }
+    }
+
+    private void rotate() throws IOException {
+        flush();
+        channel.force(false);
+        activeFile.close();
+        openActive(new Segment(active.id + 1, segmentFile(active.id + 1)), true);
+        // 当前段不参与删除，即使总大小仍超过上限
+        long total = getTotalBytes();
+        while (total > maxTotalBytes && segments.size() > 1) {
+            Segment oldest = segments.remove(0);
+            total -= oldest.length;
+            delete(oldest.file);
+        }
+    }
+
+    private void recover() throws IOException {
+        File[] files = dir.listFiles();
+        List<Long> ids = new ArrayList<>();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    // 压缩中途退出留下的临时文件，原段仍然完整
+                    delete(file);
+                } else if (name.endsWith(SUFFIX)) {
+                    try {
+                        ids.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        // 不是本类写入的文件
+                    }
+                }
+            }
+        }
+        Collections.sort(ids);
+        for (long id : ids) {
+            File file = segmentFile(id);
+            Scan scan = scan(file, file.length());
+            if (scan == null) {
+                delete(file);
+                continue;
+            }
+            Segment segment = new Segment(id, file);
+            for (int i = 0; i < scan.count; i++) {
+                int end = i + 1 < scan.count ? scan.offsets[i + 1] : scan.validLength;
+                segment.add(scan.records.get(i), end - scan.offsets[i]);
+            }
+            segments.add(segment);
+        }
+        if (segments.isEmpty()) {
+            openActive(new Segment(1, segmentFile(1)), true);
+        } else {
+            Segment last = segments.remove(segments.size() - 1);
+            openActive(last, false);
+        }
+    }
+
+    private void openActive(Segment segment, boolean create) throws IOException {
+        activeFile = new RandomAccessFile(segment.file, "rw");
+        channel = activeFile.getChannel();
+        if (create) {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+            writeHeader(header);
+            header.flip();
+            channel.truncate(0);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        } else {
+            // 截掉末尾不完整的记录，之后从有效长度处继续追加
+            channel.truncate(segment.length);
+            channel.position(segment.length);
+        }
+        active = segment;
+        segments.add(segment);
+    }
+
+    private File segmentFile(long id) {
+        return new File(dir, String.format(Locale.ROOT, "%010d", id) + SUFFIX);
+    }
+
+    private static long position(long segmentId, int offset) {
+        return (segmentId << 32) | offset;
+    }
+
+    private static void writeHeader(ByteBuffer buffer) {
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) 0);
+    }
+
+    private static void delete(File file) throws IOException {
+        if (!file.delete() && file.exists()) {
+            throw new IOException("Failed to delete " + file);
+        }
+    }
+
+    /**
+     * 读取并校验一个段，遇到第一条损坏或不完整的记录即停止。头部无效时返回 null。
+     */
+    static Scan scan(File file, long length) throws IOException {
+        byte[] data = new byte[(int) length];
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            input.readFully(data);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (data.length < SEGMENT_HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+            return null;
+        }
+        DetectorRegistry.Source[] sources = DetectorRegistry.Source.values();
+        JournalRecord.Decision[] decisions = JournalRecord.Decision.values();
+        Scan scan = new Scan(data);
+        int offset = SEGMENT_HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        while (data.length - offset >= RECORD_HEADER_SIZE) {
+            int nameLength = buffer.getShort(offset + 22) & 0xFFFF;
+            int size = RECORD_HEADER_SIZE + nameLength;
+            if (data.length - offset < size) {
+                break;
+            }
+            crc.reset();
+            crc.update(data, offset + 4, size - 4);
+            int source = data[offset + 20];
+            int decision = data[offset + 21];
+            if (buffer.getInt(offset) != (int) crc.getValue() ||
+                    source < 0 || source >= sources.length || decision < 0 || decision >= decisions.length) {
+                break;
+            }
+            scan.add(offset, new JournalRecord(
+                    buffer.getLong(offset + 4),
+                    new String(data, offset + RECORD_HEADER_SIZE, nameLength, StandardCharsets.UTF_8),
+                    sources[source],
+                    decisions[decision],
+                    buffer.getLong(offset + 12)));
+            offset += size;
+        }
+        scan.validLength = offset;
+        return scan;
+    }
+
+    static final class Scan {
+        final byte[] data;
+        final List<JournalRecord> records = new ArrayList<>();
+        int[] offsets = new int[64];
+        int count;
+        int validLength;
+
+        Scan(byte[] data) {
+            this.data = data;
+        }
+
+        void add(int offset, JournalRecord record) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = offset;
+            records.add(record);
+        }
+    }
+
+    /** 段的内存索引，用于按时间跳过整段 */
+    private static final class Segment {
+        final long id;
+        final File file;
+        long length = SEGMENT_HEADER_SIZE;
+        int count;
+        int allowCount;
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+
+        Segment(long id, File file) {
+            this.id = id;
+            this.file = file;
+        }
+
+        void add(JournalRecord record, int size) {
+            length += size;
+            count++;
+            if (record.getDecision() == JournalRecord.Decision.ALLOWED) {
+                allowCount++;
+            }
+            minTime = Math.min(minTime, record.getTime());
+            maxTime = Math.max(maxTime, record.getTime());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.testapp.core.journal;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 拦截日志的一页查询结果，记录按写入顺序从新到旧排列。
+ */
+public final class JournalPage {
+    /** 首页查询使用的游标 */
+    public static final long FIRST = Long.MAX_VALUE;
+    /** 没有更多记录 */
+    public static final long END = -1;
+
+    private final List<JournalRecord> records;
+    private final long nextCursor;
+
+    JournalPage(List<JournalRecord> records, long nextCursor) {
+        this.records = Collections.unmodifiableList(records);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<JournalRecord> getRecords() {
+        return records;
+    }
+
+    /**
+     * 传给下一次查询以获取更早的一页；为 {@link #END} 时已到末尾。
+     */
+    public long getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != END;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.testapp.core.journal;
+
+import com.example.testapp.core.detect.DetectorRegistry;
+
+/**
+ * 拦截日志中的一条判定记录，不可变。
+ */
+public final class JournalRecord {
+    // 序号写入文件，只能在末尾追加
+    public enum Decision {
+        BLOCKED,
+        ALLOWED
+    }
+
+    private final long time;
+    private final String packageName;
+    private final DetectorRegistry.Source source;
+    private final Decision decision;
+    private final long latencyNanos;
+
+    /**
+     * @param time         判定时的墙上时间（毫秒）
+     * @param latencyNanos 从检测到前台变化到做出判定的耗时
+     */
+    public JournalRecord(long time, String packageName, DetectorRegistry.Source source,
+                         Decision decision, long latencyNanos) {
+        if (packageName == null || source == null || decision == null) {
+            throw new NullPointerException();
+        }
+        this.time = time;
+        this.packageName = packageName;
+        this.source = source;
+        this.decision = decision;
+        this.latencyNanos = latencyNanos;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public DetectorRegistry.Source getSource() {
+        return source;
+    }
+
+    public Decision getDecision() {
+        return decision;
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+}
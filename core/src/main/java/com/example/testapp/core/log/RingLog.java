@@ -0,0 +1,167 @@
+package com.example.testapp.core.log;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 固定容量的内存环形日志。写满后覆盖最旧的记录。
+ * 调用方应先用 {@link #isLoggable(int)} 判断级别，关闭时不做任何字符串拼接。
+ */
+public final class RingLog {
+    // 级别取值与 android.util.Log 一致
+    public static final int VERBOSE = 2;
+    public static final int DEBUG = 3;
+    public static final int INFO = 4;
+    public static final int WARN = 5;
+    public static final int ERROR = 6;
+
+    private final int mask;
+    private final long[] times;
+    private final byte[] levels;
+    private final String[] tags;
+    private final String[] messages;
+    private long written;
+    private volatile int minLevel = INFO;
+
+    public RingLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        // 容量取整到 2 的幂，下标用位运算
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mask = size - 1;
+        times = new long[size];
+        levels = new byte[size];
+        tags = new String[size];
+        messages = new String[size];
+    }
+
+    public boolean isLoggable(int level) {
+        return level >= minLevel;
+    }
+
+    public void setMinLevel(int level) {
+        minLevel = level;
+    }
+
+    public int getMinLevel() {
+        return minLevel;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public synchronized void write(long time, int level, String tag, String message) {
+        int slot = (int) (written & mask);
+        times[slot] = time;
+        levels[slot] = (byte) level;
+        tags[slot] = tag;
+        messages[slot] = message;
+        written++;
+    }
+
+    public synchronized int size() {
+        return (int) Math.min(written, capacity());
+    }
+
+    public synchronized long getWrittenCount() {
+        return written;
+    }
+
+    /**
+     * 按页读取，第 0 页为最新的记录，页内按时间倒序。
+     */
+    public synchronized List<Entry> page(int pageIndex, int pageSize) {
+        int size = size();
+        int start = pageIndex * pageSize;
+        List<Entry> result = new ArrayList<>(Math.max(0, Math.min(pageSize, size - start)));
+        for (int i = start; i < size && i < start + pageSize; i++) {
+            int slot = (int) ((written - 1 - i) & mask);
+            result.add(new Entry(times[slot], levels[slot], tags[slot], messages[slot]));
+        }
+        return result;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i <= mask; i++) {
+            tags[i] = null;
+            messages[i] = null;
+        }
+        written = 0;
+    }
+
+    /**
+     * 依次用参数替换模板中的 "{}"，只应在级别检查通过后调用。
+     */
+    public static String format(String template, Object first, Object second) {
+        StringBuilder builder = new StringBuilder(template.length() + 32);
+        int argIndex = 0;
+        int from = 0;
+        int at;
+        while (argIndex < 2 && (at = template.indexOf("{}", from)) >= 0) {
+            builder.append(template, from, at).append(argIndex == 0 ? first : second);
+            from = at + 2;
+            argIndex++;
+        }
+        builder.append(template, from, template.length());
+        return builder.toString();
+    }
+
+    public static final class Entry {
+        private final long time;
+        private final int level;
+        private final String tag;
+        private final String message;
+
+        Entry(long time, int level, String tag, String message) {
+            this.time = time;
+            this.level = level;
+            this.tag = tag;
+            this.message = message;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS", Locale.ROOT);
+            return timeFormat.format(new Date(time)) + " " + levelChar(level) + "/" + tag + ": " + message;
+        }
+
+        private static char levelChar(int level) {
+            switch (level) {
+                case VERBOSE:
+                    return 'V';
+                case DEBUG:
+                    return 'D';
+                case INFO:
+                    return 'I';
+                case WARN:
+                    return 'W';
+                default:
+                    return 'E';
+            }
+        }
+    }
+}
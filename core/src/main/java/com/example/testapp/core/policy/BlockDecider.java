@@ -0,0 +1,8 @@
+package com.example.testapp.core.policy;
+
+/**
+ * 前台应用拦截判定。实现必须线程安全，且判定过程不应分配对象。
+ */
+public interface BlockDecider {
+    boolean shouldBlock(String packageName);
+}
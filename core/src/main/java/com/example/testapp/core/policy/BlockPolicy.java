@@ -0,0 +1,79 @@
+package com.example.testapp.core.policy;
+
+import java.util.Set;
+
+/**
+ * 编译后的拦截策略快照，创建后不可变，可在任意线程共享。
+ * 判定过程只做一次哈希查找，不分配对象。
+ */
+public final class BlockPolicy implements BlockDecider {
+    private final String selfPackage;
+    private final boolean protectionEnabled;
+    private final boolean blacklistMode;
+    private final Set<String> packages;
+    private final long version;
+
+    private BlockPolicy(String selfPackage, boolean protectionEnabled, boolean blacklistMode, Set<String> packages,
+                        long version) {
+        this.selfPackage = selfPackage;
+        this.version = version;
+        this.protectionEnabled = protectionEnabled;
+        this.blacklistMode = blacklistMode;
+        this.packages = packages;
+    }
+
+    public static BlockPolicy compile(String selfPackage, boolean protectionEnabled, boolean blacklistMode,
+                                      String blacklistApps, String whitelistApps) {
+        // 只编译当前模式用到的列表
+        String appsString = blacklistMode ? blacklistApps : whitelistApps;
+        return new BlockPolicy(selfPackage, protectionEnabled, blacklistMode, PackageLists.parse(appsString), 0);
+    }
+
+    /**
+     * 由已解析的策略内容编译，集合本身不可变，直接共享不复制。
+     *
+     * @param version 单调递增的策略版本号
+     */
+    public static BlockPolicy compile(String selfPackage, boolean protectionEnabled, boolean blacklistMode,
+                                      PolicyData data, long version) {
+        return new BlockPolicy(selfPackage, protectionEnabled, blacklistMode, data.getPackages(blacklistMode),
+                version);
+    }
+
+    @Override
+    public boolean shouldBlock(String packageName) {
+        if (!protectionEnabled || packageName == null || isExempt(packageName)) {
+            return false;
+        }
+
+        if (blacklistMode) {
+            // 黑名单模式：精确匹配包名
+            return packages.contains(packageName);
+        }
+        // 白名单模式：列表非空时，不在白名单中的应用需要拦截
+        return !packages.isEmpty() && !packages.contains(packageName);
+    }
+
+    public boolean isExempt(String packageName) {
+        // 不拦截自身应用、系统界面和桌面
+        return packageName.equals(selfPackage) ||
+               packageName.equals("android") ||
+               packageName.startsWith("com.android.");
+    }
+
+    public boolean isProtectionEnabled() {
+        return protectionEnabled;
+    }
+
+    public boolean isBlacklistMode() {
+        return blacklistMode;
+    }
+
+    public Set<String> getPackages() {
+        return packages;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.testapp.core.policy;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 逗号分隔的包名列表与集合之间的转换。
+ */
+public final class PackageLists {
+    private PackageLists() {
+    }
+
+    public static Set<String> parse(String appsString) {
+        if (appsString == null || appsString.isEmpty()) {
+            return Collections.emptySet();
+        }
+        String[] entries = appsString.split(",");
+        Set<String> result = new HashSet<>(entries.length * 2);
+        for (String entry : entries) {
+            String packageName = entry.trim();
+            if (!packageName.isEmpty()) {
+                result.add(packageName);
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    public static String join(Iterable<String> packageNames) {
+        StringBuilder builder = new StringBuilder();
+        for (String packageName : packageNames) {
+            if (builder.length() > 0) {
+                builder.append(",");
+            }
+            builder.append(packageName);
+        }
+        return builder.toString();
+    }
+}
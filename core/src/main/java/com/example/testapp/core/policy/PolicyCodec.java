@@ -0,0 +1,139 @@
+package com.example.testapp.core.policy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * 策略文件的二进制格式。
+ * <pre>
+ * 头部 16 字节：魔数(4) 版本(2) 标志位(2，保留) 内容长度(4) 内容 CRC32(4)
+ * 内容：黑名单、白名单依次为 条目数(4) + 每条 [UTF-8 字节数(2) + 字节]
+ * </pre>
+ * 条目按包名排序写入，相同内容总是得到相同的文件。校验失败或越界时抛出 {@link IOException}。
+ */
+public final class PolicyCodec {
+    static final int MAGIC = 0x42504F4C; // "BPOL"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    private static final int MAX_ENTRY_BYTES = 0xFFFF;
+
+    private PolicyCodec() {
+    }
+
+    public static byte[] encode(PolicyData data) {
+        byte[][] blacklist = encodeList(data.getBlacklist());
+        byte[][] whitelist = encodeList(data.getWhitelist());
+        int payloadLength = listSize(blacklist) + listSize(whitelist);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payloadLength);
+        buffer.position(HEADER_SIZE);
+        writeList(buffer, blacklist);
+        writeList(buffer, whitelist);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_SIZE, payloadLength);
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, VERSION);
+        buffer.putShort(6, (short) 0);
+        buffer.putInt(8, payloadLength);
+        buffer.putInt(12, (int) crc.getValue());
+        return buffer.array();
+    }
+
+    /**
+     * 从缓冲区当前位置解码，可直接传入内存映射的文件缓冲区。
+     */
+    public static PolicyData decode(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IOException("Policy file too short");
+        }
+        int start = buffer.position();
+        if (buffer.getInt(start) != MAGIC) {
+            throw new IOException("Not a policy file");
+        }
+        short version = buffer.getShort(start + 4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported policy version: " + version);
+        }
+        int payloadLength = buffer.getInt(start + 8);
+        if (payloadLength < 0 || payloadLength > buffer.remaining() - HEADER_SIZE) {
+            throw new IOException("Corrupt policy length: " + payloadLength);
+        }
+        int expectedCrc = buffer.getInt(start + 12);
+
+        // 一次批量拷贝出内容，校验和解析都在数组上进行
+        byte[] payload = new byte[payloadLength];
+        buffer.position(start + HEADER_SIZE);
+        buffer.get(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payloadLength);
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IOException("Policy checksum mismatch");
+        }
+
+        ByteBuffer content = ByteBuffer.wrap(payload);
+        Set<String> blacklist = readList(content, payload);
+        Set<String> whitelist = readList(content, payload);
+        return new PolicyData(blacklist, whitelist);
+    }
+
+    private static byte[][] encodeList(Set<String> packages) {
+        List<String> sorted = new ArrayList<>(packages);
+        Collections.sort(sorted);
+        byte[][] entries = new byte[sorted.size()][];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = sorted.get(i).getBytes(StandardCharsets.UTF_8);
+            if (entries[i].length > MAX_ENTRY_BYTES) {
+                throw new IllegalArgumentException("Package name too long: " + sorted.get(i));
+            }
+        }
+        return entries;
+    }
+
+    private static int listSize(byte[][] entries) {
+        int size = 4;
+        for (byte[] entry : entries) {
+            size += 2 + entry.length;
+        }
+        return size;
+    }
+
+    private static void writeList(ByteBuffer buffer, byte[][] entries) {
+        buffer.putInt(entries.length);
+        for (byte[] entry : entries) {
+            buffer.putShort((short) entry.length);
+            buffer.put(entry);
+        }
+    }
+
+    private static Set<String> readList(ByteBuffer content, byte[] payload) throws IOException {
+        if (content.remaining() < 4) {
+            throw new IOException("Truncated policy list");
+        }
+        int count = content.getInt();
+        // 每条至少 2 字节，借此拒绝损坏的条目数
+        if (count < 0 || count > content.remaining() / 2) {
+            throw new IOException("Corrupt policy entry count: " + count);
+        }
+        Set<String> packages = new HashSet<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            if (content.remaining() < 2) {
+                throw new IOException("Truncated policy entry");
+            }
+            int length = content.getShort() & 0xFFFF;
+            if (length > content.remaining()) {
+                throw new IOException("Truncated policy entry");
+            }
+            packages.add(new String(payload, content.position(), length, StandardCharsets.UTF_8));
+            content.position(content.position() + length);
+        }
+        return packages;
+    }
+}
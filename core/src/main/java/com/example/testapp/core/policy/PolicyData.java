@@ -0,0 +1,41 @@
+package com.example.testapp.core.policy;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 持久化的策略内容（黑名单与白名单），不可变。
+ */
+public final class PolicyData {
+    public static final PolicyData EMPTY =
+            new PolicyData(Collections.<String>emptySet(), Collections.<String>emptySet());
+
+    private final Set<String> blacklist;
+    private final Set<String> whitelist;
+
+    public PolicyData(Collection<String> blacklist, Collection<String> whitelist) {
+        this.blacklist = Collections.unmodifiableSet(new HashSet<>(blacklist));
+        this.whitelist = Collections.unmodifiableSet(new HashSet<>(whitelist));
+    }
+
+    public Set<String> getBlacklist() {
+        return blacklist;
+    }
+
+    public Set<String> getWhitelist() {
+        return whitelist;
+    }
+
+    public Set<String> getPackages(boolean blacklistMode) {
+        return blacklistMode ? blacklist : whitelist;
+    }
+
+    /**
+     * 替换其中一个列表，返回新的实例。
+     */
+    public PolicyData withPackages(boolean blacklistMode, Collection<String> packages) {
+        return blacklistMode ? new PolicyData(packages, whitelist) : new PolicyData(blacklist, packages);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.testapp.core.policy;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 两个相邻策略版本之间的变化，随新快照一起发布给检测服务。
+ * 只包含生效列表的增删；模式或保护开关变化时 {@link #isModeChanged()} 为 true。
+ */
+public final class PolicyDelta {
+    private final long version;
+    private final long publishedAt;
+    private final boolean modeChanged;
+    private final Set<String> added;
+    private final Set<String> removed;
+
+    private PolicyDelta(long version, long publishedAt, boolean modeChanged, Set<String> added, Set<String> removed) {
+        this.version = version;
+        this.publishedAt = publishedAt;
+        this.modeChanged = modeChanged;
+        this.added = added;
+        this.removed = removed;
+    }
+
+    /**
+     * 计算从 {@code previous} 到 {@code next} 的变化，线性时间。
+     *
+     * @param publishedAt 发布时刻，单位纳秒，用于统计生效延迟
+     */
+    public static PolicyDelta between(BlockPolicy previous, BlockPolicy next, long publishedAt) {
+        Set<String> before = previous != null ? previous.getPackages() : Collections.<String>emptySet();
+        Set<String> after = next.getPackages();
+        boolean modeChanged = previous == null ||
+                previous.isBlacklistMode() != next.isBlacklistMode() ||
+                previous.isProtectionEnabled() != next.isProtectionEnabled();
+        return new PolicyDelta(next.getVersion(), publishedAt, modeChanged,
+                difference(after, before), difference(before, after));
+    }
+
+    private static Set<String> difference(Set<String> from, Set<String> minus) {
+        if (from == minus) {
+            return Collections.emptySet();
+        }
+        Set<String> result = null;
+        for (String packageName : from) {
+            if (!minus.contains(packageName)) {
+                if (result == null) {
+                    result = new HashSet<>();
+                }
+                result.add(packageName);
+            }
+        }
+        return result != null ? Collections.unmodifiableSet(result) : Collections.<String>emptySet();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getPublishedAt() {
+        return publishedAt;
+    }
+
+    public boolean isModeChanged() {
+        return modeChanged;
+    }
+
+    /** 新加入生效列表的包名 */
+    public Set<String> getAdded() {
+        return added;
+    }
+
+    /** 从生效列表移除的包名 */
+    public Set<String> getRemoved() {
+        return removed;
+    }
+
+    public boolean isEmpty() {
+        return !modeChanged && added.isEmpty() && removed.isEmpty();
+    }
+
+    /**
+     * 该包名的判定结果是否可能因本次变化而改变。
+     */
+    public boolean affects(String packageName) {
+        return modeChanged || added.contains(packageName) || removed.contains(packageName);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.testapp.core.schedule;
+
+/**
+ * 自适应轮询间隔：前台应用无变化时指数退避，检测到切换或解锁后回到最短间隔。
+ */
+public final class AdaptivePollPolicy {
+    private final long minInterval;
+    private final long maxInterval;
+    private long interval;
+
+    public AdaptivePollPolicy(long minInterval, long maxInterval) {
+        if (minInterval <= 0 || maxInterval < minInterval) {
+            throw new IllegalArgumentException("Invalid interval range: " + minInterval + ".." + maxInterval);
+        }
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.interval = minInterval;
+    }
+
+    /**
+     * 记录一次轮询结果，返回到下一次轮询的间隔（毫秒）。
+     */
+    public synchronized long next(boolean changed) {
+        if (changed) {
+            interval = minInterval;
+        } else {
+            interval = Math.min(interval * 2, maxInterval);
+        }
+        return interval;
+    }
+
+    /**
+     * 解锁、亮屏等事件之后立即收紧间隔。
+     */
+    public synchronized void boost() {
+        interval = minInterval;
+    }
+}
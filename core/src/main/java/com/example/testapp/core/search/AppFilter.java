@@ -0,0 +1,12 @@
+package com.example.testapp.core.search;
+
+import com.example.testapp.core.catalog.CatalogItem;
+
+import java.util.List;
+
+/**
+ * 应用列表搜索过滤。返回新列表，保持输入顺序，不修改输入。
+ */
+public interface AppFilter {
+    <T extends CatalogItem> List<T> filter(List<T> items, String query);
+}
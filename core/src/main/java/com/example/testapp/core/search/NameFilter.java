@@ -0,0 +1,30 @@
+package com.example.testapp.core.search;
+
+import com.example.testapp.core.catalog.CatalogItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 按应用名称忽略大小写的子串匹配。
+ */
+public class NameFilter implements AppFilter {
+    @Override
+    public <T extends CatalogItem> List<T> filter(List<T> items, String query) {
+        if (query == null || query.isEmpty()) {
+            return new ArrayList<>(items);
+        }
+
+        // 查询串只转换一次
+        String normalizedQuery = query.toLowerCase(Locale.ROOT);
+        List<T> result = new ArrayList<>();
+        for (T item : items) {
+            String appName = item.getAppName();
+            if (appName != null && appName.toLowerCase(Locale.ROOT).contains(normalizedQuery)) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.testapp.core.search;
+
+import com.example.testapp.core.catalog.CatalogItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 应用列表的预计算搜索索引。每次目录加载后构建一次，保存规范化后的名称、包名，
+ * 以及中文名称的拼音全拼和首字母。查询结果按 前缀 &gt; 词首 &gt; 子串 排序，同级保持原顺序。
+ * 构建后只读，可在任意线程查询。
+ */
+public final class SearchIndex<T extends CatalogItem> {
+    /**
+     * 单个字符的拼音来源。
+     */
+    public interface Pinyin {
+        /** 汉字返回小写无声调的拼音，其他字符返回 null */
+        String of(char c);
+    }
+
+    /** 不做拼音转换 */
+    public static final Pinyin NO_PINYIN = new Pinyin() {
+        @Override
+        public String of(char c) {
+            return null;
+        }
+    };
+
+    static final int NO_MATCH = 0;
+    static final int SUBSTRING = 1;
+    static final int WORD_START = 2;
+    static final int PREFIX = 3;
+
+    private static final int[] NO_STARTS = new int[0];
+
+    private final List<T> items;
+    // 每个应用的可搜索字段及其词首位置，无对应字段时为 null
+    private final String[] labels;
+    private final int[][] labelStarts;
+    private final String[] packages;
+    private final int[][] packageStarts;
+    private final String[] pinyinFull;
+    private final int[][] pinyinFullStarts;
+    private final String[] pinyinInitials;
+
+    private SearchIndex(List<T> items, Pinyin pinyin) {
+        this.items = Collections.unmodifiableList(new ArrayList<>(items));
+        int size = this.items.size();
+        labels = new String[size];
+        labelStarts = new int[size][];
+        packages = new String[size];
+        packageStarts = new int[size][];
+        pinyinFull = new String[size];
+        pinyinFullStarts = new int[size][];
+        pinyinInitials = new String[size];
+
+        StringBuilder full = new StringBuilder();
+        StringBuilder initials = new StringBuilder();
+        int[] syllableStarts = new int[64];
+        for (int i = 0; i < size; i++) {
+            T item = this.items.get(i);
+            String label = item.getAppName() != null ? normalize(item.getAppName()) : "";
+            labels[i] = label;
+            labelStarts[i] = wordStarts(label);
+            packages[i] = normalize(item.getPackageName());
+            packageStarts[i] = wordStarts(packages[i]);
+
+            full.setLength(0);
+            initials.setLength(0);
+            int starts = 0;
+            boolean hasPinyin = false;
+            for (int c = 0; c < label.length(); c++) {
+                char ch = label.charAt(c);
+                String syllable = pinyin.of(ch);
+                if (syllable != null && !syllable.isEmpty()) {
+                    hasPinyin = true;
+                    if (starts == syllableStarts.length) {
+                        int[] grown = new int[starts * 2];
+                        System.arraycopy(syllableStarts, 0, grown, 0, starts);
+                        syllableStarts = grown;
+                    }
+                    syllableStarts[starts++] = full.length();
+                    full.append(syllable);
+                    initials.append(syllable.charAt(0));
+                } else if (Character.isLetterOrDigit(ch)) {
+                    full.append(ch);
+                    initials.append(ch);
+                }
+            }
+            if (hasPinyin) {
+                pinyinFull[i] = full.toString();
+                int[] copy = new int[starts];
+                System.arraycopy(syllableStarts, 0, copy, 0, starts);
+                pinyinFullStarts[i] = copy;
+                pinyinInitials[i] = initials.toString();
+            }
+        }
+    }
+
+    public static <T extends CatalogItem> SearchIndex<T> build(List<T> items, Pinyin pinyin) {
+        return new SearchIndex<>(items, pinyin);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * 查询匹配的应用，空查询返回全部应用。返回的列表为新建的可变列表。
+     */
+    public List<T> query(String query) {
+        String normalized = query != null ? normalize(query.trim()) : "";
+        if (normalized.isEmpty()) {
+            return new ArrayList<>(items);
+        }
+
+        // 按等级分桶，合并后即为稳定排序的结果
+        List<T> prefix = new ArrayList<>();
+        List<T> wordStart = new ArrayList<>();
+        List<T> substring = new ArrayList<>();
+        for (int i = 0; i < labels.length; i++) {
+            int score = score(i, normalized);
+            if (score == PREFIX) {
+                prefix.add(items.get(i));
+            } else if (score == WORD_START) {
+                wordStart.add(items.get(i));
+            } else if (score == SUBSTRING) {
+                substring.add(items.get(i));
+            }
+        }
+        prefix.addAll(wordStart);
+        prefix.addAll(substring);
+        return prefix;
+    }
+
+    int score(int i, String query) {
+        int best = match(labels[i], labelStarts[i], query);
+        if (best == PREFIX) {
+            return best;
+        }
+        if (pinyinFull[i] != null) {
+            best = Math.max(best, match(pinyinFull[i], pinyinFullStarts[i], query));
+            // 首字母缩写只算前缀匹配，避免短查询误中
+            if (pinyinInitials[i].startsWith(query)) {
+                return PREFIX;
+            }
+        }
+        if (best < WORD_START) {
+            best = Math.max(best, match(packages[i], packageStarts[i], query));
+        }
+        return best;
+    }
+
+    private static int match(String field, int[] starts, String query) {
+        int index = field.indexOf(query);
+        if (index < 0) {
+            return NO_MATCH;
+        }
+        if (index == 0) {
+            return PREFIX;
+        }
+        while (index >= 0) {
+            if (isStart(starts, index)) {
+                return WORD_START;
+            }
+            index = field.indexOf(query, index + 1);
+        }
+        return SUBSTRING;
+    }
+
+    private static boolean isStart(int[] starts, int index) {
+        for (int start : starts) {
+            if (start == index) {
+                return true;
+            }
+            if (start > index) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 词首：非字母数字字符之后的第一个字母数字字符，例如 "com.tencent.mm" 中的 t 和 m。
+     */
+    private static int[] wordStarts(String text) {
+        int count = 0;
+        for (int i = 1; i < text.length(); i++) {
+            if (isBoundary(text, i)) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            return NO_STARTS;
+        }
+        int[] starts = new int[count];
+        int n = 0;
+        for (int i = 1; i < text.length(); i++) {
+            if (isBoundary(text, i)) {
+                starts[n++] = i;
+            }
+        }
+        return starts;
+    }
+
+    private static boolean isBoundary(String text, int i) {
+        return Character.isLetterOrDigit(text.charAt(i)) && !Character.isLetterOrDigit(text.charAt(i - 1));
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.testapp.core.selection;
+
+import com.example.testapp.core.catalog.CatalogItem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 应用列表的选中状态，按包名保存，与列表项对象和过滤结果无关。
+ * 恢复、保存和批量操作都是线性时间；未安装或未显示的包名同样保留。非线程安全，只在主线程使用。
+ */
+public final class SelectionSet {
+    private final HashSet<String> packages;
+
+    public SelectionSet() {
+        packages = new HashSet<>();
+    }
+
+    public SelectionSet(Collection<String> selectedPackages) {
+        packages = new HashSet<>(selectedPackages);
+    }
+
+    public boolean isSelected(String packageName) {
+        return packages.contains(packageName);
+    }
+
+    public void setSelected(String packageName, boolean selected) {
+        if (selected) {
+            packages.add(packageName);
+        } else {
+            packages.remove(packageName);
+        }
+    }
+
+    /**
+     * 切换选中状态，返回切换后的状态。
+     */
+    public boolean toggle(String packageName) {
+        if (packages.remove(packageName)) {
+            return false;
+        }
+        packages.add(packageName);
+        return true;
+    }
+
+    public int size() {
+        return packages.size();
+    }
+
+    public boolean isEmpty() {
+        return packages.isEmpty();
+    }
+
+    /**
+     * 用新的包名集合替换全部选择，例如切换黑白名单或重新打开列表时。
+     */
+    public void replaceAll(Collection<String> selectedPackages) {
+        packages.clear();
+        packages.addAll(selectedPackages);
+    }
+
+    public void clear() {
+        packages.clear();
+    }
+
+    /** 选中给定的全部应用，传入过滤结果即为按搜索结果全选 */
+    public void selectAll(List<? extends CatalogItem> items) {
+        for (CatalogItem item : items) {
+            packages.add(item.getPackageName());
+        }
+    }
+
+    public void deselectAll(List<? extends CatalogItem> items) {
+        for (CatalogItem item : items) {
+            packages.remove(item.getPackageName());
+        }
+    }
+
+    public void invert(List<? extends CatalogItem> items) {
+        for (CatalogItem item : items) {
+            toggle(item.getPackageName());
+        }
+    }
+
+    /** 给定应用中已选中的数量 */
+    public int countSelected(List<? extends CatalogItem> items) {
+        int count = 0;
+        for (CatalogItem item : items) {
+            if (packages.contains(item.getPackageName())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public Set<String> packages() {
+        return Collections.unmodifiableSet(packages);
+    }
+
+    /** 按包名排序的副本，保存结果与选择顺序无关 */
+    public List<String> sortedPackages() {
+        List<String> result = new ArrayList<>(packages);
+        Collections.sort(result);
+        return result;
+    }
+}
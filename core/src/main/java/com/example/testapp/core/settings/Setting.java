@@ -0,0 +1,28 @@
+package com.example.testapp.core.settings;
+
+/**
+ * 开关类设置项及其存储键和默认值。
+ */
+public enum Setting {
+    PROTECTION_ENABLED("protection_enabled", true),
+    BLACKLIST_MODE("is_blacklist_mode", true),
+    AUTO_START("auto_start_enabled", true),
+    NOTIFICATIONS("notification_enabled", true),
+    SCREEN_TIME("screen_time_enabled", false);
+
+    private final String key;
+    private final boolean defaultValue;
+
+    Setting(String key, boolean defaultValue) {
+        this.key = key;
+        this.defaultValue = defaultValue;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public boolean getDefaultValue() {
+        return defaultValue;
+    }
+}
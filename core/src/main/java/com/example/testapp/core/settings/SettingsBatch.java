@@ -0,0 +1,43 @@
+package com.example.testapp.core.settings;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 尚未写盘的设置修改。同一设置项在一个批次内多次修改只保留最后的值，
+ * 整批在一次事务中写入。线程安全。
+ */
+public final class SettingsBatch {
+    private static final Setting[] SETTINGS = Setting.values();
+
+    private final boolean[] values = new boolean[SETTINGS.length];
+    private int dirty;
+
+    /**
+     * 记录一次修改。返回 true 表示这是新批次的第一项修改，调用方应安排一次写盘。
+     */
+    public synchronized boolean put(Setting setting, boolean value) {
+        boolean first = dirty == 0;
+        values[setting.ordinal()] = value;
+        dirty |= 1 << setting.ordinal();
+        return first;
+    }
+
+    public synchronized boolean isEmpty() {
+        return dirty == 0;
+    }
+
+    /**
+     * 取出并清空当前批次。
+     */
+    public synchronized Map<Setting, Boolean> drain() {
+        Map<Setting, Boolean> pending = new EnumMap<>(Setting.class);
+        for (Setting setting : SETTINGS) {
+            if ((dirty & (1 << setting.ordinal())) != 0) {
+                pending.put(setting, values[setting.ordinal()]);
+            }
+        }
+        dirty = 0;
+        return pending;
+    }
+}
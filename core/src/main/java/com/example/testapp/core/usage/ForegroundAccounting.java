@@ -0,0 +1,326 @@
+package com.example.testapp.core.usage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * 把前台应用的切换序列换算成各应用的前台时长，并按分钟、小时、天汇总。
+ * 每种粒度是一个环形桶：每个槽位记录它当前代表的时间单位，按应用连续存放在一维 long 数组中；
+ * 槽位被新的时间单位占用时整列清零。查询某天或最近 7 天只读取固定数量的槽位，与历史长度无关。
+ * 时区偏移按每个时间点单独计算，夏令时切换前后的区间各自落入正确的本地小时和日期。
+ * 进行中的区间在 {@link #checkpoint(long)} 或下一次切换时才计入，调用方应定期打点。
+ * 所有方法同步，可在任意线程查询。
+ */
+public final class ForegroundAccounting {
+    public static final long MINUTE = 60 * 1000L;
+    public static final long HOUR = 60 * MINUTE;
+    public static final long DAY = 24 * HOUR;
+    public static final int WEEK_DAYS = 7;
+    static final int MINUTE_SLOTS = 60;
+    static final int HOUR_SLOTS = 48;
+    static final int DAY_SLOTS = 28;
+    private static final int INITIAL_APPS = 64;
+
+    public interface Sink {
+        /** 每个计入的区间回调一次，用于增量持久化；在修改统计的线程上同步调用 */
+        void onCredited(String packageName, long from, long to);
+    }
+
+    private volatile TimeZone zone;
+    private final long maxInterval;
+    private final HashMap<String, Integer> ids = new HashMap<>();
+    private String[] packages = new String[INITIAL_APPS];
+    private int appCount;
+    private final Ring minutes;
+    private final Ring hours;
+    private final Ring days;
+    private int current = -1;
+    private int last = -1;
+    private long since;
+    private Sink sink;
+
+    /**
+     * @param zone        本地时区，决定小时和天的边界
+     * @param maxInterval 单个区间计入的上限，防止漏掉熄屏等事件时把长时间空闲算作前台
+     */
+    public ForegroundAccounting(TimeZone zone, long maxInterval) {
+        this.zone = zone;
+        this.maxInterval = maxInterval;
+        minutes = new Ring(MINUTE, MINUTE_SLOTS, INITIAL_APPS);
+        hours = new Ring(HOUR, HOUR_SLOTS, INITIAL_APPS);
+        days = new Ring(DAY, DAY_SLOTS, INITIAL_APPS);
+    }
+
+    /**
+     * 系统时区变化后调用，之后的区间和查询按新时区划分边界，已计入的数据不变。
+     */
+    public synchronized void setTimeZone(TimeZone zone) {
+        this.zone = zone;
+    }
+
+    public synchronized void setSink(Sink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * 前台切换到指定应用；与当前应用相同时忽略。
+     */
+    public synchronized void onForeground(String packageName, long time) {
+        if (current != -1 && packages[current].equals(packageName)) {
+            return;
+        }
+        close(time);
+        current = intern(packageName);
+        last = current;
+        since = time;
+    }
+
+    /**
+     * 没有应用在前台（例如熄屏），停止计时。
+     */
+    public synchronized void onIdle(long time) {
+        close(time);
+        current = -1;
+    }
+
+    /**
+     * 从空闲恢复（例如解锁），继续为最后一个前台应用计时，直到下一次切换。
+     */
+    public synchronized void onResume(long time) {
+        if (current == -1 && last != -1) {
+            current = last;
+            since = time;
+        }
+    }
+
+    /**
+     * 把进行中的区间计入到 time 为止，之后从 time 继续计时。
+     */
+    public synchronized void checkpoint(long time) {
+        if (current != -1) {
+            close(time);
+            since = time;
+        }
+    }
+
+    /**
+     * 直接计入一个区间，不回调 {@link Sink}，用于从持久化记录重放。
+     */
+    public synchronized void credit(String packageName, long from, long to) {
+        if (to > from) {
+            add(intern(packageName), from, to);
+        }
+    }
+
+    public long dayOf(long time) {
+        return Math.floorDiv(local(zone, time), DAY);
+    }
+
+    public long hourOf(long time) {
+        return Math.floorDiv(local(zone, time), HOUR);
+    }
+
+    public long minuteOf(long time) {
+        return Math.floorDiv(local(zone, time), MINUTE);
+    }
+
+    private static long local(TimeZone zone, long time) {
+        return time + zone.getOffset(time);
+    }
+
+    public synchronized long getDayMillis(String packageName, long day) {
+        Integer id = ids.get(packageName);
+        return id != null ? days.get(id, day) : 0;
+    }
+
+    public synchronized long getDayTotal(long day) {
+        return days.getTotal(day);
+    }
+
+    /**
+     * 截至 lastDay（含）的 7 天合计。
+     */
+    public synchronized long getWeekMillis(String packageName, long lastDay) {
+        Integer id = ids.get(packageName);
+        if (id == null) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < WEEK_DAYS; i++) {
+            total += days.get(id, lastDay - i);
+        }
+        return total;
+    }
+
+    public synchronized long getWeekTotal(long lastDay) {
+        long total = 0;
+        for (int i = 0; i < WEEK_DAYS; i++) {
+            total += days.getTotal(lastDay - i);
+        }
+        return total;
+    }
+
+    public synchronized long getHourMillis(String packageName, long hour) {
+        Integer id = ids.get(packageName);
+        return id != null ? hours.get(id, hour) : 0;
+    }
+
+    public synchronized long getMinuteMillis(String packageName, long minute) {
+        Integer id = ids.get(packageName);
+        return id != null ? minutes.get(id, minute) : 0;
+    }
+
+    /**
+     * 指定日期前台时间最长的应用，按时长降序。
+     */
+    public synchronized List<String> topApps(long day, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        int[] top = new int[limit];
+        long[] values = new long[limit];
+        int size = 0;
+        for (int id = 0; id < appCount; id++) {
+            long value = days.get(id, day);
+            if (value == 0 || (size == limit && value <= values[size - 1])) {
+                continue;
+            }
+            int i = size < limit ? size++ : size - 1;
+            while (i > 0 && values[i - 1] < value) {
+                top[i] = top[i - 1];
+                values[i] = values[i - 1];
+                i--;
+            }
+            top[i] = id;
+            values[i] = value;
+        }
+        List<String> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(packages[top[i]]);
+        }
+        return result;
+    }
+
+    private void close(long time) {
+        if (current == -1) {
+            return;
+        }
+        long to = Math.min(time, since + maxInterval);
+        if (to > since) {
+            add(current, since, to);
+            if (sink != null) {
+                sink.onCredited(packages[current], since, to);
+            }
+        }
+    }
+
+    private void add(int id, long from, long to) {
+        minutes.add(id, from, to, zone);
+        hours.add(id, from, to, zone);
+        days.add(id, from, to, zone);
+    }
+
+    private int intern(String packageName) {
+        Integer id = ids.get(packageName);
+        if (id != null) {
+            return id;
+        }
+        if (appCount == packages.length) {
+            int capacity = appCount * 2;
+            packages = Arrays.copyOf(packages, capacity);
+            minutes.grow(capacity);
+            hours.grow(capacity);
+            days.grow(capacity);
+        }
+        packages[appCount] = packageName;
+        ids.put(packageName, appCount);
+        return appCount++;
+    }
+
+    /** 一种粒度的环形桶，values 按 [应用][槽位] 展开 */
+    private static final class Ring {
+        final long unit;
+        final int slots;
+        final long[] stamps;
+        final long[] totals;
+        long[] values;
+        int capacity;
+
+        Ring(long unit, int slots, int capacity) {
+            this.unit = unit;
+            this.slots = slots;
+            this.capacity = capacity;
+            stamps = new long[slots];
+            Arrays.fill(stamps, Long.MIN_VALUE);
+            totals = new long[slots];
+            values = new long[capacity * slots];
+        }
+
+        void grow(int newCapacity) {
+            values = Arrays.copyOf(values, newCapacity * slots);
+            capacity = newCapacity;
+        }
+
+        void add(int id, long from, long to, TimeZone zone) {
+            // 只有最近 slots 个单位还在环中，更早的部分直接跳过；取较早的估算，多出的单位会被后续单位覆盖
+            long firstUnit = Math.floorDiv(local(zone, to - 1), unit) - slots + 1;
+            long guess = firstUnit * unit - zone.getOffset(to);
+            long start = Math.max(from, Math.min(guess, firstUnit * unit - zone.getOffset(guess)));
+            while (start < to) {
+                long u = Math.floorDiv(local(zone, start), unit);
+                long end = Math.min(to, nextUnitStart(u, start, zone));
+                int slot = claim(u);
+                if (slot >= 0) {
+                    values[id * slots + slot] += end - start;
+                    totals[slot] += end - start;
+                }
+                start = end;
+            }
+        }
+
+        /**
+         * time 之后第一个不属于单位 u 的时间点。先按 time 处的偏移估算，再按估算点的偏移修正，
+         * 夏令时切换落在区间内时边界仍在正确的一侧；修正结果不成立（跳过的本地时段）时使用估算值。
+         */
+        private long nextUnitStart(long u, long time, TimeZone zone) {
+            long guess = (u + 1) * unit - zone.getOffset(time);
+            long corrected = (u + 1) * unit - zone.getOffset(guess);
+            if (corrected > time && Math.floorDiv(local(zone, corrected), unit) > u) {
+                return corrected;
+            }
+            return guess;
+        }
+
+        long get(int id, long u) {
+            int slot = (int) Math.floorMod(u, (long) slots);
+            return stamps[slot] == u ? values[id * slots + slot] : 0;
+        }
+
+        long getTotal(long u) {
+            int slot = (int) Math.floorMod(u, (long) slots);
+            return stamps[slot] == u ? totals[slot] : 0;
+        }
+
+        /**
+         * 返回单位 u 所在的槽位；槽位已被更新的单位占用时返回 -1（数据已过期）。
+         */
+        private int claim(long u) {
+            int slot = (int) Math.floorMod(u, (long) slots);
+            if (stamps[slot] == u) {
+                return slot;
+            }
+            if (stamps[slot] > u) {
+                return -1;
+            }
+            for (int i = slot; i < values.length; i += slots) {
+                values[i] = 0;
+            }
+            totals[slot] = 0;
+            stamps[slot] = u;
+            return slot;
+        }
+    }
+}
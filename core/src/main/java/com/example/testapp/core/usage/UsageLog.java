@@ -0,0 +1,164 @@
+package com.example.testapp.core.usage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 前台时长的增量持久化：每个计入的区间追加一条记录，启动时重放到 {@link ForegroundAccounting}。
+ * <pre>
+ * 头部：魔数(4) 版本(2)
+ * 记录：包名 UTF-8 字节数(2) + 字节，开始时间(8)，时长毫秒(4)
+ * </pre>
+ * 末尾写了一半的记录在重放时截掉。{@link #compact(long)} 重写文件，丢弃已移出统计窗口的区间。
+ * 非线程安全。
+ */
+public final class UsageLog implements Closeable {
+    static final int MAGIC = 0x5553474C; // "USGL"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 6;
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File file;
+    private DataOutputStream output;
+
+    public UsageLog(File file) {
+        this.file = file;
+    }
+
+    /**
+     * 重放所有记录并打开文件以便追加，返回重放的记录数。文件不存在或头部无效时从空文件开始。
+     */
+    public int replay(ForegroundAccounting accounting) throws IOException {
+        close();
+        int count = 0;
+        long validLength = 0;
+        if (file.exists()) {
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (input.readInt() == MAGIC && input.readShort() == VERSION) {
+                    validLength = HEADER_SIZE;
+                    while (true) {
+                        byte[] name = new byte[input.readUnsignedShort()];
+                        input.readFully(name);
+                        long from = input.readLong();
+                        int duration = input.readInt();
+                        if (duration > 0) {
+                            accounting.credit(new String(name, StandardCharsets.UTF_8), from, from + duration);
+                        }
+                        validLength += 2 + name.length + 12;
+                        count++;
+                    }
+                }
+            } catch (EOFException e) {
+                // 文件末尾，或最后一条记录不完整
+            }
+        }
+        if (validLength == 0) {
+            writeHeader(file);
+        } else {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(validLength);
+            }
+        }
+        openForAppend();
+        return count;
+    }
+
+    /**
+     * 追加一个区间，写入缓冲区；需先调用 {@link #replay}。
+     */
+    public void append(String packageName, long from, long to) throws IOException {
+        byte[] name = packageName.getBytes(StandardCharsets.UTF_8);
+        if (name.length > 0xFFFF || to - from > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Record out of range: " + packageName);
+        }
+        output.writeShort(name.length);
+        output.write(name);
+        output.writeLong(from);
+        output.writeInt((int) (to - from));
+    }
+
+    public void flush() throws IOException {
+        if (output != null) {
+            output.flush();
+        }
+    }
+
+    /**
+     * 重写文件，只保留结束时间晚于 cutoff 的区间，返回保留的记录数。
+     * 失败时原文件保持不变并仍可追加。
+     */
+    public int compact(long cutoff) throws IOException {
+        close();
+        File temp = new File(file.getPath() + TEMP_SUFFIX);
+        int kept = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+             DataOutputStream compacted = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            compacted.writeInt(MAGIC);
+            compacted.writeShort(VERSION);
+            input.readInt();
+            input.readShort();
+            try {
+                while (true) {
+                    byte[] name = new byte[input.readUnsignedShort()];
+                    input.readFully(name);
+                    long from = input.readLong();
+                    int duration = input.readInt();
+                    if (from + duration > cutoff) {
+                        compacted.writeShort(name.length);
+                        compacted.write(name);
+                        compacted.writeLong(from);
+                        compacted.writeInt(duration);
+                        kept++;
+                    }
+                }
+            } catch (EOFException e) {
+                // 读完
+            }
+        } catch (IOException e) {
+            temp.delete();
+            // 原文件未改动，继续向它追加
+            openForAppend();
+            throw e;
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            openForAppend();
+            throw new IOException("Failed to replace " + file);
+        }
+        openForAppend();
+        return kept;
+    }
+
+    public long length() {
+        return file.length();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+    }
+
+    private void openForAppend() throws IOException {
+        output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+    }
+
+    private static void writeHeader(File file) throws IOException {
+        try (DataOutputStream header = new DataOutputStream(new FileOutputStream(file))) {
+            header.writeInt(MAGIC);
+            header.writeShort(VERSION);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.testapp.core.catalog;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CatalogCodecTest {
+    @Test
+    public void roundTripsEntries() throws IOException {
+        List<CatalogEntry> entries = Arrays.asList(
+                new CatalogEntry("com.a", "Alpha", 0x80, 12L, 1000L),
+                new CatalogEntry("com.b", "微信", 0, Long.MAX_VALUE, 2000L));
+
+        List<CatalogEntry> decoded = decode(encode(entries));
+
+        assertEquals(2, decoded.size());
+        CatalogEntry second = decoded.get(1);
+        assertEquals("com.b", second.getPackageName());
+        assertEquals("微信", second.getLabel());
+        assertEquals(Long.MAX_VALUE, second.getVersionCode());
+        assertEquals(2000L, second.getLastUpdateTime());
+        assertEquals(0x80, decoded.get(0).getFlags());
+        assertEquals("alpha", decoded.get(0).getSortKey());
+    }
+
+    @Test
+    public void roundTripsEmptyCatalog() throws IOException {
+        assertTrue(decode(encode(Collections.<CatalogEntry>emptyList())).isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsForeignData() throws IOException {
+        decode(new byte[] {1, 2, 3, 4, 0, 0, 0, 1, 0, 0, 0, 0});
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedData() throws IOException {
+        byte[] bytes = encode(Arrays.asList(new CatalogEntry("com.a", "Alpha", 0, 1L, 1L)));
+        decode(Arrays.copyOf(bytes, bytes.length - 3));
+    }
+
+    @Test
+    public void orderSortsIgnoringCase() {
+        CatalogEntry lower = new CatalogEntry("com.b", "beta", 0, 1L, 1L);
+        CatalogEntry upper = new CatalogEntry("com.a", "Alpha", 0, 1L, 1L);
+
+        assertTrue(CatalogEntry.ORDER.compare(upper, lower) < 0);
+    }
+
+    private static byte[] encode(List<CatalogEntry> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CatalogCodec.write(entries, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static List<CatalogEntry> decode(byte[] bytes) throws IOException {
+        return CatalogCodec.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+}
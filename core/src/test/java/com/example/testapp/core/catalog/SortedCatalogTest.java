@@ -0,0 +1,44 @@
+package com.example.testapp.core.catalog;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SortedCatalogTest {
+    @Test
+    public void mergesBatchesInOrder() {
+        SortedCatalog catalog = new SortedCatalog(Arrays.asList(entry("Delta"), entry("alpha")));
+
+        catalog.addAll(Arrays.asList(entry("echo"), entry("Charlie")));
+        catalog.addAll(Collections.singletonList(entry("bravo")));
+
+        assertEquals(Arrays.asList("alpha", "bravo", "Charlie", "Delta", "echo"), labels(catalog.snapshot()));
+    }
+
+    @Test
+    public void snapshotIsDetachedFromLaterBatches() {
+        SortedCatalog catalog = new SortedCatalog(Collections.singletonList(entry("alpha")));
+        List<CatalogEntry> snapshot = catalog.snapshot();
+
+        catalog.addAll(Collections.singletonList(entry("bravo")));
+
+        assertEquals(1, snapshot.size());
+        assertEquals(2, catalog.size());
+    }
+
+    private static CatalogEntry entry(String label) {
+        return new CatalogEntry("com." + label.toLowerCase(), label, 0, 1L, 1L);
+    }
+
+    private static List<String> labels(List<CatalogEntry> entries) {
+        String[] labels = new String[entries.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = entries.get(i).getLabel();
+        }
+        return Arrays.asList(labels);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.testapp.core.detect;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DetectorRegistryTest {
+    @Test
+    public void pollingIsPrimaryUntilAccessibilityConnects() {
+        DetectorRegistry registry = new DetectorRegistry();
+
+        assertTrue(registry.shouldPoll());
+        registry.markAlive(DetectorRegistry.Source.ACCESSIBILITY);
+        assertFalse(registry.shouldPoll());
+        assertEquals(DetectorRegistry.Source.ACCESSIBILITY, registry.getPrimary());
+    }
+
+    @Test
+    public void listenersSeeOnlyPrimaryChanges() {
+        DetectorRegistry registry = new DetectorRegistry();
+        List<DetectorRegistry.Source> changes = new ArrayList<>();
+        registry.addListener(changes::add);
+
+        registry.markAlive(DetectorRegistry.Source.USAGE_POLLING);
+        registry.markAlive(DetectorRegistry.Source.ACCESSIBILITY);
+        registry.markAlive(DetectorRegistry.Source.ACCESSIBILITY);
+        registry.markDead(DetectorRegistry.Source.ACCESSIBILITY);
+
+        assertEquals(2, changes.size());
+        assertEquals(DetectorRegistry.Source.ACCESSIBILITY, changes.get(0));
+        assertEquals(DetectorRegistry.Source.USAGE_POLLING, changes.get(1));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.testapp.core.dispatch;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BlockCoalescerTest {
+    @Test
+    public void suppressesDuplicatesWithinWindow() {
+        BlockCoalescer coalescer = new BlockCoalescer(1000);
+
+        assertTrue(coalescer.tryAcquire("com.a", 0));
+        assertFalse(coalescer.tryAcquire("com.a", 999));
+        assertTrue(coalescer.tryAcquire("com.b", 999));
+        assertTrue(coalescer.tryAcquire("com.a", 1000));
+    }
+
+    @Test
+    public void releaseAllowsImmediateRetry() {
+        BlockCoalescer coalescer = new BlockCoalescer(1000);
+        coalescer.tryAcquire("com.a", 0);
+
+        coalescer.release("com.a");
+
+        assertTrue(coalescer.tryAcquire("com.a", 10));
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.testapp.core.journal;
+
+import com.example.testapp.core.detect.DetectorRegistry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BlockJournalTest {
+    private static final int SEGMENT_BYTES = 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static JournalRecord blocked(long time, String packageName) {
+        return new JournalRecord(time, packageName, DetectorRegistry.Source.ACCESSIBILITY,
+                JournalRecord.Decision.BLOCKED, 1500);
+    }
+
+    private static JournalRecord allowed(long time, String packageName) {
+        return new JournalRecord(time, packageName, DetectorRegistry.Source.USAGE_POLLING,
+                JournalRecord.Decision.ALLOWED, 800);
+    }
+
+    private static List<String> packages(JournalPage page) {
+        List<String> result = new ArrayList<>();
+        for (JournalRecord record : page.getRecords()) {
+            result.add(record.getPackageName());
+        }
+        return result;
+    }
+
+    @Test
+    public void queryReturnsNewestFirstWithinRange() throws IOException {
+        BlockJournal journal = new BlockJournal(folder.getRoot(), SEGMENT_BYTES, 8 * SEGMENT_BYTES);
+        for (int i = 0; i < 5; i++) {
+            journal.append(blocked(1000 + i, "com.app" + i));
+        }
+
+        JournalPage page = journal.query(1001, 1003, JournalPage.FIRST, 10);
+
+        assertEquals(3, page.getRecords().size());
+        assertEquals("com.app3", page.getRecords().get(0).getPackageName());
+        assertEquals("com.app1", page.getRecords().get(2).getPackageName());
+        assertFalse(page.hasMore());
+        journal.close();
+    }
+
+    @Test
+    public void pagesAcrossSegmentsWithoutGapsOrRepeats() throws IOException {
+        BlockJournal journal = new BlockJournal(folder.getRoot(), SEGMENT_BYTES, 64 * SEGMENT_BYTES);
+        for (int i = 0; i < 200; i++) {
+            journal.append(blocked(i, "com.app" + i));
+        }
+        assertTrue(journal.getSegmentCount() > 1);
+
+        List<String> seen = new ArrayList<>();
+        long cursor = JournalPage.FIRST;
+        do {
+            JournalPage page = journal.query(0, Long.MAX_VALUE, cursor, 30);
+            seen.addAll(packages(page));
+            cursor = page.getNextCursor();
+        } while (cursor != JournalPage.END);
+
+        assertEquals(200, seen.size());
+        assertEquals("com.app199", seen.get(0));
+        assertEquals("com.app0", seen.get(199));
+        journal.close();
+    }
+
+    @Test
+    public void recordsSurviveReopen() throws IOException {
+        BlockJournal journal = new BlockJournal(folder.getRoot(), SEGMENT_BYTES, 8 * SEGMENT_BYTES);
+        journal.append(blocked(1, "com.a"));
+        journal.append(allowed(2, "com.b"));
+        journal.close();
+
+        BlockJournal reopened = new BlockJournal(folder.getRoot(), SEGMENT_BYTES, 8 * SEGMENT_BYTES);
+        reopened.append(blocked(3, "com.c"));
+        JournalPage page = reopened.query(0, Long.MAX_VALUE, JournalPage.FIRST, 10);
+
+        assertEquals(3, page.getRecords().size());
+        JournalRecord record = page.getRecords().get(1);
+        assertEquals("com.b", record.getPackageName());
+        assertEquals(DetectorRegistry.Source.USAGE_POLLING, record.getSource());
+        assertEquals(JournalRecord.Decision.ALLOWED, record.getDecision());
+        assertEquals(800, record.getLatencyNanos());
+        reopened.close();
+    }
+
+    @Test
+    public void truncatesTornTailOnReopen() throws IOException {
+        BlockJournal journal = new BlockJournal(folder.getRoot(), SEGMENT_BYTES, 8 * SEGMENT_BYTES);
+        journal.append(blocked(1, "com.a"));
+        journal.append(blocked(2, "com.b"));
+        journal.close();
+        File segment = folder.getRoot().listFiles()[0];
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        BlockJournal reopened = new BlockJournal(folder.getRoot(), SEGMENT_BYTES, 8 * SEGMENT_BYTES);
+        reopened.append(blocked(3, "com.c"));
+
+        assertEquals(2, reopened.getRecordCount());
+        assertEquals(2, reopened.query(0, Long.MAX_VALUE, JournalPage.FIRST, 10).getRecords().size());
+        reopened.close();
+    }
+
+    @Test
+    public void retentionCapDropsOldestSegments() throws IOException {
+        BlockJournal journal = new BlockJournal(folder.getRoot(), SEGMENT_BYTES, 3 * SEGMENT_BYTES);
+        for (int i = 0; i < 500; i++) {
+            journal.append(blocked(i, "com.app" + i));
+        }
+
+        assertTrue(journal.getTotalBytes() <= 4 * SEGMENT_BYTES);
+        assertEquals(journal.getSegmentCount(), folder.getRoot().listFiles().length);
+        JournalPage page = journal.query(0, Long.MAX_VALUE, JournalPage.FIRST, 1);
+        assertEquals("com.app499", page.getRecords().get(0).getPackageName());
+        assertTrue(journal.query(0, 0, JournalPage.FIRST, 1).getRecords().isEmpty());
+        journal.close();
+    }
+
+    @Test
+    public void compactionDropsOldAllowRecordsAndKeepsBlocks() throws IOException {
+        BlockJournal journal = new BlockJournal(folder.getRoot(), SEGMENT_BYTES, 64 * SEGMENT_BYTES);
+        for (int i = 0; i < 100; i++) {
+            journal.append(i % 10 == 0 ? blocked(i, "com.blocked" + i) : allowed(i, "com.allowed" + i));
+        }
+        long before = journal.getTotalBytes();
+
+        long reclaimed = journal.compact(50);
+
+        assertTrue(reclaimed > 0);
+        assertEquals(before - reclaimed, journal.getTotalBytes());
+        for (JournalRecord record : journal.query(0, 49, JournalPage.FIRST, 100).getRecords()) {
+            assertEquals(JournalRecord.Decision.BLOCKED, record.getDecision());
+        }
+        assertEquals(5, journal.query(0, 49, JournalPage.FIRST, 100).getRecords().size());
+        journal.close();
+
+        BlockJournal reopened = new BlockJournal(folder.getRoot(), SEGMENT_BYTES, 64 * SEGMENT_BYTES);
+        assertEquals(journal.getRecordCount(), reopened.getRecordCount());
+        reopened.close();
+    }
+}
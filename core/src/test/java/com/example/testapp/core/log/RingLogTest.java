@@ -0,0 +1,47 @@
+package com.example.testapp.core.log;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RingLogTest {
+    @Test
+    public void overwritesOldestWhenFull() {
+        RingLog log = new RingLog(3);
+        assertEquals(4, log.capacity());
+
+        for (int i = 0; i < 6; i++) {
+            log.write(i, RingLog.INFO, "T", "m" + i);
+        }
+
+        assertEquals(4, log.size());
+        List<RingLog.Entry> newest = log.page(0, 2);
+        assertEquals("m5", newest.get(0).getMessage());
+        assertEquals("m4", newest.get(1).getMessage());
+        List<RingLog.Entry> oldest = log.page(1, 2);
+        assertEquals("m2", oldest.get(1).getMessage());
+        assertTrue(log.page(2, 2).isEmpty());
+    }
+
+    @Test
+    public void levelGate() {
+        RingLog log = new RingLog(8);
+        assertFalse(log.isLoggable(RingLog.DEBUG));
+
+        log.setMinLevel(RingLog.DEBUG);
+
+        assertTrue(log.isLoggable(RingLog.DEBUG));
+        assertFalse(log.isLoggable(RingLog.VERBOSE));
+    }
+
+    @Test
+    public void formatReplacesPlaceholders() {
+        assertEquals("a=1, b=x", RingLog.format("a={}, b={}", 1, "x"));
+        assertEquals("x and null", RingLog.format("{} and {}", "x", null));
+        assertEquals("none", RingLog.format("none", 1, 2));
+    }
+}
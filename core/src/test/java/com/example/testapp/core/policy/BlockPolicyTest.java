@@ -0,0 +1,54 @@
+package com.example.testapp.core.policy;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BlockPolicyTest {
+    private static final String SELF = "com.example.testapp";
+
+    @Test
+    public void blacklistBlocksOnlyListedPackages() {
+        BlockPolicy policy = BlockPolicy.compile(SELF, true, true, "com.a, com.b", "com.c");
+
+        assertTrue(policy.shouldBlock("com.a"));
+        assertTrue(policy.shouldBlock("com.b"));
+        assertFalse(policy.shouldBlock("com.c"));
+        assertEquals(2, policy.getPackages().size());
+    }
+
+    @Test
+    public void whitelistBlocksEverythingElse() {
+        BlockPolicy policy = BlockPolicy.compile(SELF, true, false, "com.a", "com.c,,");
+
+        assertFalse(policy.shouldBlock("com.c"));
+        assertTrue(policy.shouldBlock("com.a"));
+        assertTrue(policy.shouldBlock("com.z"));
+    }
+
+    @Test
+    public void emptyWhitelistBlocksNothing() {
+        BlockPolicy policy = BlockPolicy.compile(SELF, true, false, "com.a", "");
+
+        assertFalse(policy.shouldBlock("com.a"));
+    }
+
+    @Test
+    public void disabledProtectionBlocksNothing() {
+        BlockPolicy policy = BlockPolicy.compile(SELF, false, true, "com.a", "");
+
+        assertFalse(policy.shouldBlock("com.a"));
+    }
+
+    @Test
+    public void selfAndSystemPackagesAreExempt() {
+        BlockPolicy policy = BlockPolicy.compile(SELF, true, false, "", "com.a");
+
+        assertFalse(policy.shouldBlock(SELF));
+        assertFalse(policy.shouldBlock("android"));
+        assertFalse(policy.shouldBlock("com.android.systemui"));
+        assertFalse(policy.shouldBlock(null));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.testapp.core.policy;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PackageListsTest {
+    @Test
+    public void parseTrimsAndSkipsEmptyEntries() {
+        Set<String> packages = PackageLists.parse(" com.a ,,com.b, ");
+
+        assertEquals(2, packages.size());
+        assertTrue(packages.contains("com.a"));
+        assertTrue(packages.contains("com.b"));
+    }
+
+    @Test
+    public void parseHandlesNullAndEmpty() {
+        assertTrue(PackageLists.parse(null).isEmpty());
+        assertTrue(PackageLists.parse("").isEmpty());
+    }
+
+    @Test
+    public void joinRoundTrips() {
+        String joined = PackageLists.join(Arrays.asList("com.a", "com.b"));
+
+        assertEquals("com.a,com.b", joined);
+        assertEquals(2, PackageLists.parse(joined).size());
+    }
+}
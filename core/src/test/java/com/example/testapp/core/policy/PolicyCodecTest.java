@@ -0,0 +1,60 @@
+package com.example.testapp.core.policy;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PolicyCodecTest {
+    @Test
+    public void roundTripsBothLists() throws IOException {
+        PolicyData data = new PolicyData(Arrays.asList("com.b", "com.a"), Collections.singletonList("com.微信"));
+
+        PolicyData decoded = PolicyCodec.decode(ByteBuffer.wrap(PolicyCodec.encode(data)));
+
+        assertEquals(data.getBlacklist(), decoded.getBlacklist());
+        assertEquals(data.getWhitelist(), decoded.getWhitelist());
+    }
+
+    @Test
+    public void encodingIsIndependentOfInsertionOrder() {
+        byte[] first = PolicyCodec.encode(new PolicyData(Arrays.asList("com.a", "com.b"), Collections.<String>emptyList()));
+        byte[] second = PolicyCodec.encode(new PolicyData(Arrays.asList("com.b", "com.a"), Collections.<String>emptyList()));
+
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    public void roundTripsEmptyPolicy() throws IOException {
+        PolicyData decoded = PolicyCodec.decode(ByteBuffer.wrap(PolicyCodec.encode(PolicyData.EMPTY)));
+
+        assertTrue(decoded.getBlacklist().isEmpty());
+        assertTrue(decoded.getWhitelist().isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsChecksumMismatch() throws IOException {
+        byte[] bytes = PolicyCodec.encode(new PolicyData(Collections.singletonList("com.a"), Collections.<String>emptyList()));
+        bytes[bytes.length - 1] ^= 1;
+        PolicyCodec.decode(ByteBuffer.wrap(bytes));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedFile() throws IOException {
+        byte[] bytes = PolicyCodec.encode(new PolicyData(Collections.singletonList("com.a"), Collections.<String>emptyList()));
+        PolicyCodec.decode(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 2)));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsUnknownVersion() throws IOException {
+        byte[] bytes = PolicyCodec.encode(PolicyData.EMPTY);
+        bytes[5] = 9;
+        PolicyCodec.decode(ByteBuffer.wrap(bytes));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.testapp.core.policy;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PolicyDeltaTest {
+    private static final String SELF = "com.example.testapp";
+
+    @Test
+    public void listsAddedAndRemovedPackages() {
+        BlockPolicy previous = compile(true, Arrays.asList("com.a", "com.b"), 1);
+        BlockPolicy next = compile(true, Arrays.asList("com.b", "com.c"), 2);
+
+        PolicyDelta delta = PolicyDelta.between(previous, next, 42L);
+
+        assertEquals(2, delta.getVersion());
+        assertEquals(42L, delta.getPublishedAt());
+        assertEquals(Collections.singleton("com.c"), delta.getAdded());
+        assertEquals(Collections.singleton("com.a"), delta.getRemoved());
+        assertFalse(delta.isModeChanged());
+        assertTrue(delta.affects("com.a"));
+        assertFalse(delta.affects("com.b"));
+    }
+
+    @Test
+    public void modeSwitchAffectsEveryPackage() {
+        BlockPolicy previous = compile(true, Collections.singletonList("com.a"), 1);
+        BlockPolicy next = compile(false, Collections.singletonList("com.a"), 2);
+
+        PolicyDelta delta = PolicyDelta.between(previous, next, 0L);
+
+        assertTrue(delta.isModeChanged());
+        assertTrue(delta.affects("com.z"));
+    }
+
+    @Test
+    public void identicalPoliciesProduceEmptyDelta() {
+        BlockPolicy previous = compile(true, Collections.singletonList("com.a"), 1);
+        BlockPolicy next = compile(true, Collections.singletonList("com.a"), 2);
+
+        assertTrue(PolicyDelta.between(previous, next, 0L).isEmpty());
+    }
+
+    private static BlockPolicy compile(boolean blacklistMode, List<String> packages, long version) {
+        PolicyData data = new PolicyData(packages, packages);
+        return BlockPolicy.compile(SELF, true, blacklistMode, data, version);
+    }
+}
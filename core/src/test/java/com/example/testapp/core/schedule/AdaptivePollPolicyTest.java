@@ -0,0 +1,37 @@
+package com.example.testapp.core.schedule;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdaptivePollPolicyTest {
+    @Test
+    public void backsOffExponentiallyUpToMax() {
+        AdaptivePollPolicy policy = new AdaptivePollPolicy(500, 3000);
+
+        assertEquals(1000, policy.next(false));
+        assertEquals(2000, policy.next(false));
+        assertEquals(3000, policy.next(false));
+        assertEquals(3000, policy.next(false));
+    }
+
+    @Test
+    public void changeAndBoostResetToMin() {
+        AdaptivePollPolicy policy = new AdaptivePollPolicy(500, 3000);
+        policy.next(false);
+        policy.next(false);
+
+        assertEquals(500, policy.next(true));
+
+        policy.next(false);
+        policy.next(false);
+        policy.boost();
+        // 从最短间隔重新退避
+        assertEquals(1000, policy.next(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidRange() {
+        new AdaptivePollPolicy(1000, 500);
+    }
+}
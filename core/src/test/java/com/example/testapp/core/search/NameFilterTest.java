@@ -0,0 +1,43 @@
+package com.example.testapp.core.search;
+
+import com.example.testapp.core.catalog.CatalogItem;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class NameFilterTest {
+    private final AppFilter filter = new NameFilter();
+
+    @Test
+    public void matchesNameIgnoringCase() {
+        List<Item> items = Arrays.asList(new Item("com.a", "WeChat"), new Item("com.b", "Maps"), new Item("com.c", "微信读书"));
+
+        assertEquals(1, filter.filter(items, "chat").size());
+        assertEquals("com.c", filter.filter(items, "微信").get(0).getPackageName());
+        assertEquals(3, filter.filter(items, "").size());
+    }
+
+    static class Item implements CatalogItem {
+        private final String packageName;
+        private final String appName;
+
+        Item(String packageName, String appName) {
+            this.packageName = packageName;
+            this.appName = appName;
+        }
+
+        @Override
+        public String getPackageName() {
+            return packageName;
+        }
+
+        @Override
+        public String getAppName() {
+            return appName;
+        }
+    }
+}
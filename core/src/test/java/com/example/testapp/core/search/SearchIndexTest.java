@@ -0,0 +1,104 @@
+package com.example.testapp.core.search;
+
+import com.example.testapp.core.catalog.CatalogItem;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SearchIndexTest {
+    private static final Map<Character, String> PINYIN = new HashMap<>();
+
+    static {
+        PINYIN.put('微', "wei");
+        PINYIN.put('信', "xin");
+        PINYIN.put('音', "yin");
+        PINYIN.put('乐', "yue");
+    }
+
+    private static final SearchIndex.Pinyin FAKE_PINYIN = new SearchIndex.Pinyin() {
+        @Override
+        public String of(char c) {
+            return PINYIN.get(c);
+        }
+    };
+
+    @Test
+    public void ranksPrefixBeforeWordStartBeforeSubstring() {
+        SearchIndex<Item> index = SearchIndex.build(Arrays.asList(
+                new Item("com.a", "Reader"),
+                new Item("com.b", "Easy Reader"),
+                new Item("com.c", "Ready Go")), SearchIndex.NO_PINYIN);
+
+        assertEquals(Arrays.asList("Reader", "Ready Go", "Easy Reader"), names(index.query("REA")));
+        assertEquals(Arrays.asList("Ready Go"), names(index.query("go")));
+        assertEquals(Arrays.asList("Reader", "Easy Reader"), names(index.query("ader")));
+    }
+
+    @Test
+    public void matchesPackageName() {
+        SearchIndex<Item> index = SearchIndex.build(Arrays.asList(
+                new Item("com.tencent.mm", "微信"),
+                new Item("com.other", "Other")), FAKE_PINYIN);
+
+        assertEquals(Arrays.asList("微信"), names(index.query("tencent")));
+    }
+
+    @Test
+    public void matchesPinyinFullAndInitials() {
+        SearchIndex<Item> index = SearchIndex.build(Arrays.asList(
+                new Item("com.a", "QQ音乐"),
+                new Item("com.b", "微信")), FAKE_PINYIN);
+
+        assertEquals(Arrays.asList("微信"), names(index.query("weixin")));
+        assertEquals(Arrays.asList("微信"), names(index.query("wx")));
+        assertEquals(Arrays.asList("QQ音乐"), names(index.query("qqyy")));
+        // 音节开头算词首
+        assertEquals(Arrays.asList("微信"), names(index.query("xin")));
+        assertEquals(Arrays.asList("QQ音乐"), names(index.query("音乐")));
+    }
+
+    @Test
+    public void emptyQueryReturnsEverythingInOrder() {
+        SearchIndex<Item> index = SearchIndex.build(Arrays.asList(
+                new Item("com.a", "B"), new Item("com.b", "A")), SearchIndex.NO_PINYIN);
+
+        assertEquals(Arrays.asList("B", "A"), names(index.query("  ")));
+        assertTrue(index.query("zzz").isEmpty());
+    }
+
+    private static List<String> names(List<Item> items) {
+        List<String> names = new ArrayList<>();
+        for (Item item : items) {
+            names.add(item.getAppName());
+        }
+        return names;
+    }
+
+    private static final class Item implements CatalogItem {
+        private final String packageName;
+        private final String appName;
+
+        Item(String packageName, String appName) {
+            this.packageName = packageName;
+            this.appName = appName;
+        }
+
+        @Override
+        public String getPackageName() {
+            return packageName;
+        }
+
+        @Override
+        public String getAppName() {
+            return appName;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.testapp.core.selection;
+
+import com.example.testapp.core.catalog.CatalogEntry;
+import com.example.testapp.core.catalog.CatalogItem;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SelectionSetTest {
+    private static final List<CatalogItem> VISIBLE = Arrays.<CatalogItem>asList(
+            new CatalogEntry("com.a", "A", 0, 1L, 1L),
+            new CatalogEntry("com.b", "B", 0, 1L, 1L));
+
+    @Test
+    public void toggleReturnsNewState() {
+        SelectionSet selection = new SelectionSet();
+
+        assertTrue(selection.toggle("com.a"));
+        assertTrue(selection.isSelected("com.a"));
+        assertFalse(selection.toggle("com.a"));
+        assertTrue(selection.isEmpty());
+    }
+
+    @Test
+    public void bulkOperationsOnlyTouchGivenItems() {
+        SelectionSet selection = new SelectionSet(Arrays.asList("com.hidden", "com.a"));
+
+        selection.invert(VISIBLE);
+        assertEquals(Arrays.asList("com.b", "com.hidden"), selection.sortedPackages());
+
+        selection.selectAll(VISIBLE);
+        assertEquals(2, selection.countSelected(VISIBLE));
+        assertEquals(3, selection.size());
+
+        selection.deselectAll(VISIBLE);
+        assertEquals(Arrays.asList("com.hidden"), selection.sortedPackages());
+    }
+
+    @Test
+    public void replaceAllDiscardsPreviousSelection() {
+        SelectionSet selection = new SelectionSet(Arrays.asList("com.a"));
+
+        selection.replaceAll(Arrays.asList("com.b", "com.c"));
+
+        assertFalse(selection.isSelected("com.a"));
+        assertEquals(2, selection.size());
+    }
+}
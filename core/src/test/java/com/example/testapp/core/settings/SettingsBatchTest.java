@@ -0,0 +1,39 @@
+package com.example.testapp.core.settings;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SettingsBatchTest {
+    @Test
+    public void onlyFirstPutOfBatchRequestsFlush() {
+        SettingsBatch batch = new SettingsBatch();
+
+        assertTrue(batch.put(Setting.PROTECTION_ENABLED, false));
+        assertFalse(batch.put(Setting.AUTO_START, false));
+        batch.drain();
+
+        assertTrue(batch.put(Setting.AUTO_START, true));
+    }
+
+    @Test
+    public void rapidTogglesCoalesceToLastValue() {
+        SettingsBatch batch = new SettingsBatch();
+        for (int i = 0; i < 5; i++) {
+            batch.put(Setting.NOTIFICATIONS, i % 2 == 0);
+        }
+        batch.put(Setting.BLACKLIST_MODE, false);
+
+        Map<Setting, Boolean> pending = batch.drain();
+
+        assertEquals(2, pending.size());
+        assertEquals(Boolean.TRUE, pending.get(Setting.NOTIFICATIONS));
+        assertEquals(Boolean.FALSE, pending.get(Setting.BLACKLIST_MODE));
+        assertTrue(batch.isEmpty());
+        assertTrue(batch.drain().isEmpty());
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.testapp.core.usage;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+public class ForegroundAccountingTest {
+    private static final long MINUTE = ForegroundAccounting.MINUTE;
+    private static final long HOUR = ForegroundAccounting.HOUR;
+    private static final long DAY = ForegroundAccounting.DAY;
+    // 某一天的 UTC 零点
+    private static final long START = 20000 * DAY;
+    // 2024-03-10 00:00 纽约当地时间（EST），当天 02:00 切换到夏令时
+    private static final long DST_DAY_START = 1710046800000L;
+
+    private static ForegroundAccounting accounting() {
+        return new ForegroundAccounting(TimeZone.getTimeZone("UTC"), 2 * HOUR);
+    }
+
+    @Test
+    public void transitionsCreditThePreviousApp() {
+        ForegroundAccounting accounting = accounting();
+        accounting.onForeground("com.a", START);
+        accounting.onForeground("com.a", START + MINUTE);
+        accounting.onForeground("com.b", START + 10 * MINUTE);
+        accounting.onIdle(START + 15 * MINUTE);
+
+        long day = accounting.dayOf(START);
+        assertEquals(10 * MINUTE, accounting.getDayMillis("com.a", day));
+        assertEquals(5 * MINUTE, accounting.getDayMillis("com.b", day));
+        assertEquals(15 * MINUTE, accounting.getDayTotal(day));
+    }
+
+    @Test
+    public void intervalsSplitAcrossBucketBoundaries() {
+        ForegroundAccounting accounting = accounting();
+        accounting.credit("com.a", START - 30 * MINUTE, START + 90 * MINUTE);
+
+        long day = accounting.dayOf(START);
+        assertEquals(30 * MINUTE, accounting.getDayMillis("com.a", day - 1));
+        assertEquals(90 * MINUTE, accounting.getDayMillis("com.a", day));
+        assertEquals(HOUR, accounting.getHourMillis("com.a", accounting.hourOf(START)));
+        assertEquals(30 * MINUTE, accounting.getHourMillis("com.a", accounting.hourOf(START + HOUR)));
+        assertEquals(MINUTE, accounting.getMinuteMillis("com.a", accounting.minuteOf(START + HOUR)));
+    }
+
+    @Test
+    public void zoneOffsetMovesDayBoundary() {
+        ForegroundAccounting accounting = new ForegroundAccounting(TimeZone.getTimeZone("GMT+08:00"), 2 * HOUR);
+        // UTC 15:00-17:00 即本地 23:00-01:00
+        accounting.credit("com.a", START + 15 * HOUR, START + 17 * HOUR);
+
+        long day = accounting.dayOf(START + 15 * HOUR);
+        assertEquals(HOUR, accounting.getDayMillis("com.a", day));
+        assertEquals(HOUR, accounting.getDayMillis("com.a", day + 1));
+    }
+
+    @Test
+    public void daylightSavingShiftsLaterBoundaries() {
+        ForegroundAccounting accounting = new ForegroundAccounting(TimeZone.getTimeZone("America/New_York"),
+                2 * DAY);
+        // 当天只有 23 小时，次日零点是 UTC 04:00 而不是 05:00
+        accounting.credit("com.a", DST_DAY_START, DST_DAY_START + 24 * HOUR);
+        // 当地 01:30 EST 到 03:30 EDT，实际 1 小时
+        accounting.credit("com.b", DST_DAY_START + 90 * MINUTE, DST_DAY_START + 150 * MINUTE);
+
+        long day = accounting.dayOf(DST_DAY_START);
+        assertEquals(23 * HOUR, accounting.getDayMillis("com.a", day));
+        assertEquals(HOUR, accounting.getDayMillis("com.a", day + 1));
+        long before = accounting.hourOf(DST_DAY_START + 90 * MINUTE);
+        assertEquals(before + 2, accounting.hourOf(DST_DAY_START + 150 * MINUTE));
+        assertEquals(30 * MINUTE, accounting.getHourMillis("com.b", before));
+        assertEquals(30 * MINUTE, accounting.getHourMillis("com.b", before + 2));
+    }
+
+    @Test
+    public void timeZoneChangeAppliesToLaterIntervals() {
+        ForegroundAccounting accounting = accounting();
+        accounting.credit("com.a", START + 12 * HOUR, START + 13 * HOUR);
+        accounting.setTimeZone(TimeZone.getTimeZone("GMT+08:00"));
+        // UTC 20:00-21:00 在新时区是次日 04:00-05:00
+        accounting.credit("com.a", START + 20 * HOUR, START + 21 * HOUR);
+
+        assertEquals(HOUR, accounting.getDayMillis("com.a", START / DAY));
+        assertEquals(HOUR, accounting.getDayMillis("com.a", START / DAY + 1));
+    }
+
+    @Test
+    public void weekSumsTheLastSevenDays() {
+        ForegroundAccounting accounting = accounting();
+        for (int i = 0; i < 10; i++) {
+            accounting.credit("com.a", START + i * DAY, START + i * DAY + HOUR);
+        }
+
+        long lastDay = accounting.dayOf(START + 9 * DAY);
+        assertEquals(7 * HOUR, accounting.getWeekMillis("com.a", lastDay));
+        assertEquals(7 * HOUR, accounting.getWeekTotal(lastDay));
+        assertEquals(0, accounting.getWeekMillis("com.unknown", lastDay));
+    }
+
+    @Test
+    public void expiredDaysReadAsZero() {
+        ForegroundAccounting accounting = accounting();
+        accounting.credit("com.a", START, START + HOUR);
+        long day = accounting.dayOf(START);
+        accounting.credit("com.b", START + ForegroundAccounting.DAY_SLOTS * DAY, START + ForegroundAccounting.DAY_SLOTS * DAY + HOUR);
+
+        assertEquals(0, accounting.getDayMillis("com.a", day));
+        // 比环中最新数据还旧的区间被丢弃
+        accounting.credit("com.a", START, START + HOUR);
+        assertEquals(0, accounting.getDayMillis("com.a", day));
+    }
+
+    @Test
+    public void idleStopsAndResumeRestartsTheClock() {
+        ForegroundAccounting accounting = accounting();
+        accounting.onForeground("com.a", START);
+        accounting.onIdle(START + 10 * MINUTE);
+        accounting.onResume(START + HOUR);
+        accounting.checkpoint(START + HOUR + 5 * MINUTE);
+
+        assertEquals(15 * MINUTE, accounting.getDayMillis("com.a", accounting.dayOf(START)));
+    }
+
+    @Test
+    public void longIntervalsAreCapped() {
+        ForegroundAccounting accounting = accounting();
+        accounting.onForeground("com.a", START);
+        accounting.onForeground("com.b", START + 10 * HOUR);
+
+        assertEquals(2 * HOUR, accounting.getDayMillis("com.a", accounting.dayOf(START)));
+    }
+
+    @Test
+    public void sinkReceivesCreditedIntervals() {
+        ForegroundAccounting accounting = accounting();
+        List<String> credited = new ArrayList<>();
+        accounting.setSink((packageName, from, to) -> credited.add(packageName + ":" + (to - from)));
+        accounting.onForeground("com.a", START);
+        accounting.checkpoint(START + MINUTE);
+        accounting.onForeground("com.b", START + 3 * MINUTE);
+
+        assertEquals(Arrays.asList("com.a:60000", "com.a:120000"), credited);
+    }
+
+    @Test
+    public void topAppsOrdersByDuration() {
+        ForegroundAccounting accounting = accounting();
+        accounting.credit("com.a", START, START + MINUTE);
+        accounting.credit("com.b", START, START + 3 * MINUTE);
+        accounting.credit("com.c", START, START + 2 * MINUTE);
+        for (int i = 0; i < 100; i++) {
+            accounting.credit("com.filler" + i, START, START + 1000);
+        }
+
+        assertEquals(Arrays.asList("com.b", "com.c"), accounting.topApps(accounting.dayOf(START), 2));
+    }
+}
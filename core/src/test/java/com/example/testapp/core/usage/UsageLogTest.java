@@ -0,0 +1,99 @@
+package com.example.testapp.core.usage;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class UsageLogTest {
+    private static final long HOUR = ForegroundAccounting.HOUR;
+    private static final long START = 20000 * ForegroundAccounting.DAY;
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replayRestoresCreditedTime() throws IOException {
+        File file = new File(folder.getRoot(), "usage.log");
+        UsageLog log = new UsageLog(file);
+        log.replay(new ForegroundAccounting(UTC, HOUR));
+        log.append("com.a", START, START + HOUR);
+        log.append("com.b", START + HOUR, START + 2 * HOUR);
+        log.close();
+
+        ForegroundAccounting restored = new ForegroundAccounting(UTC, HOUR);
+        assertEquals(2, new UsageLog(file).replay(restored));
+        assertEquals(HOUR, restored.getDayMillis("com.a", restored.dayOf(START)));
+        assertEquals(2 * HOUR, restored.getDayTotal(restored.dayOf(START)));
+    }
+
+    @Test
+    public void tornTailIsDroppedAndAppendingContinues() throws IOException {
+        File file = new File(folder.getRoot(), "usage.log");
+        UsageLog log = new UsageLog(file);
+        log.replay(new ForegroundAccounting(UTC, HOUR));
+        log.append("com.a", START, START + HOUR);
+        log.append("com.b", START, START + HOUR);
+        log.close();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 5);
+        }
+
+        UsageLog reopened = new UsageLog(file);
+        assertEquals(1, reopened.replay(new ForegroundAccounting(UTC, HOUR)));
+        reopened.append("com.c", START, START + HOUR);
+        reopened.close();
+
+        ForegroundAccounting restored = new ForegroundAccounting(UTC, HOUR);
+        assertEquals(2, new UsageLog(file).replay(restored));
+        assertEquals(HOUR, restored.getDayMillis("com.c", restored.dayOf(START)));
+    }
+
+    @Test
+    public void compactionDropsExpiredIntervals() throws IOException {
+        File file = new File(folder.getRoot(), "usage.log");
+        UsageLog log = new UsageLog(file);
+        log.replay(new ForegroundAccounting(UTC, HOUR));
+        log.append("com.old", START, START + HOUR);
+        log.append("com.new", START + 10 * HOUR, START + 11 * HOUR);
+
+        assertEquals(1, log.compact(START + 5 * HOUR));
+        log.append("com.later", START + 12 * HOUR, START + 13 * HOUR);
+        log.close();
+
+        ForegroundAccounting restored = new ForegroundAccounting(UTC, HOUR);
+        assertEquals(2, new UsageLog(file).replay(restored));
+        assertEquals(0, restored.getDayMillis("com.old", restored.dayOf(START)));
+    }
+
+    @Test
+    public void failedCompactionKeepsLogAppendable() throws IOException {
+        File file = new File(folder.getRoot(), "usage.log");
+        UsageLog log = new UsageLog(file);
+        log.replay(new ForegroundAccounting(UTC, HOUR));
+        log.append("com.old", START, START + HOUR);
+        // 临时文件的位置被目录占用，重写失败
+        assertTrue(new File(file.getPath() + ".tmp").mkdir());
+
+        try {
+            log.compact(START + 5 * HOUR);
+            fail();
+        } catch (IOException expected) {
+        }
+        log.append("com.later", START + 12 * HOUR, START + 13 * HOUR);
+        log.close();
+
+        ForegroundAccounting restored = new ForegroundAccounting(UTC, HOUR);
+        assertEquals(2, new UsageLog(file).replay(restored));
+        assertEquals(HOUR, restored.getDayMillis("com.old", restored.dayOf(START)));
+    }
+}